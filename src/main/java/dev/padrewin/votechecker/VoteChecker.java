@@ -4,6 +4,8 @@ import dev.padrewin.colddev.ColdPlugin;
 import dev.padrewin.colddev.config.ColdSetting;
 import dev.padrewin.colddev.manager.Manager;
 import dev.padrewin.colddev.manager.PluginUpdateManager;
+import dev.padrewin.votechecker.api.VoteCheckerAPI;
+import dev.padrewin.votechecker.api.VoteCheckerService;
 import dev.padrewin.votechecker.hook.CommandInterceptor;
 //import dev.padrewin.votechecker.listeners.VoteCheckListener;
 import dev.padrewin.votechecker.manager.CommandManager;
@@ -11,8 +13,10 @@ import dev.padrewin.votechecker.manager.LocaleManager;
 import dev.padrewin.votechecker.placeholders.VoteExpansion;
 import dev.padrewin.votechecker.setting.SettingKey;
 import dev.padrewin.votechecker.database.VoteDatabaseManager;
+import dev.padrewin.votechecker.listeners.PlayerSessionListener;
 import dev.padrewin.votechecker.listeners.VoteListener;
 import org.bukkit.Bukkit;
+import org.bukkit.plugin.ServicePriority;
 
 import java.io.File;
 import java.util.List;
@@ -44,9 +48,13 @@ public final class VoteChecker extends ColdPlugin {
         instance = this;
         this.database = new VoteDatabaseManager(this);
 
+        // Public API for other plugins: Bukkit.getServicesManager().load(VoteCheckerAPI.class)
+        getServer().getServicesManager().register(VoteCheckerAPI.class, new VoteCheckerService(this), this, ServicePriority.Normal);
+
         // Register listeners
         //getServer().getPluginManager().registerEvents(new VoteCheckListener(), this);
         getServer().getPluginManager().registerEvents(new VoteListener(this), this);
+        getServer().getPluginManager().registerEvents(new PlayerSessionListener(this), this);
         getManager(PluginUpdateManager.class);
 
         // Register PlaceholderAPI expansion with delay
@@ -89,6 +97,7 @@ public final class VoteChecker extends ColdPlugin {
 
     @Override
     public void disable() {
+        getServer().getServicesManager().unregisterAll(this);
         if (database != null) {
             database.shutdown();
         }
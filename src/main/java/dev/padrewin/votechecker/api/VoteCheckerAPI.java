@@ -0,0 +1,51 @@
+package dev.padrewin.votechecker.api;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Service for other plugins, registered in Bukkit's ServicesManager:
+ * <pre>
+ * VoteCheckerAPI api = Bukkit.getServicesManager().load(VoteCheckerAPI.class);
+ * </pre>
+ * Nothing here blocks. Use {@link #getCachedStatus} on the main thread; the futures complete on
+ * VoteChecker's database threads, so chain on them instead of calling {@code join()} or {@code get()}.
+ */
+public interface VoteCheckerAPI {
+
+    /**
+     * The player's vote status from memory only, no I/O. Online players are loaded at login,
+     * so this is rarely {@link VoteStatus#UNKNOWN} for them.
+     */
+    VoteStatus getCachedStatus(UUID uuid);
+
+    /**
+     * Fresh vote status, answered from memory when possible and from the database otherwise.
+     * Completes with the configured failure-mode answer if the database is unavailable.
+     */
+    CompletableFuture<Boolean> hasVotedToday(UUID uuid, String playerName);
+
+    /** Vote status of many players, looked up together. */
+    CompletableFuture<Map<UUID, Boolean>> hasVotedToday(Collection<UUID> uuids);
+
+    /** All-time number of votes of the player. */
+    CompletableFuture<Long> getTotalVotes(UUID uuid);
+
+    /**
+     * When the player's current vote stops counting (epoch millis), from memory only:
+     * 0 if they can vote now, -1 if unknown.
+     */
+    long getVoteExpiry(UUID uuid);
+
+    /**
+     * Registers a listener for vote status changes, until the subscription is cancelled or
+     * VoteChecker is disabled.
+     */
+    Subscription subscribe(VoteStatusListener listener);
+
+    interface Subscription {
+        void cancel();
+    }
+}
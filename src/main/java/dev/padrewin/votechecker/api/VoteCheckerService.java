@@ -0,0 +1,120 @@
+package dev.padrewin.votechecker.api;
+
+import dev.padrewin.votechecker.VoteChecker;
+import dev.padrewin.votechecker.cache.VoteLeaderboard;
+import dev.padrewin.votechecker.database.VoteDatabaseManager;
+import dev.padrewin.votechecker.window.LeaderboardPeriod;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * {@link VoteCheckerAPI} backed by the {@link VoteDatabaseManager}.
+ * <p>
+ * Status changes are detected from memory: votes are reported by the database manager, and
+ * while anyone is subscribed, online players are re-checked once a second so expiring votes
+ * are noticed too. Listeners only hear about actual changes.
+ */
+public final class VoteCheckerService implements VoteCheckerAPI {
+
+    private static final long EXPIRY_CHECK_TICKS = 20L;
+
+    private final VoteChecker plugin;
+    private final List<VoteStatusListener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<UUID, VoteStatus> lastStatus = new HashMap<>(); // main thread only
+    private BukkitTask expiryTask; // main thread only
+
+    public VoteCheckerService(VoteChecker plugin) {
+        this.plugin = plugin;
+        plugin.getDatabase().addVoteListener(uuid -> {
+            if (!listeners.isEmpty()) Bukkit.getScheduler().runTask(plugin, () -> update(uuid, true));
+        });
+    }
+
+    @Override
+    public VoteStatus getCachedStatus(UUID uuid) {
+        return VoteStatus.of(plugin.getDatabase().getCachedVoteStatus(uuid));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasVotedToday(UUID uuid, String playerName) {
+        return plugin.getDatabase().hasVotedTodayAsync(uuid, playerName);
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Boolean>> hasVotedToday(Collection<UUID> uuids) {
+        return plugin.getDatabase().hasVotedTodayAsync(uuids);
+    }
+
+    /** From the all-time leaderboard once it is loaded, from the database before that. */
+    @Override
+    public CompletableFuture<Long> getTotalVotes(UUID uuid) {
+        VoteLeaderboard allTime = plugin.getDatabase().getLeaderboard(LeaderboardPeriod.ALLTIME);
+        if (allTime.isLoaded()) {
+            return CompletableFuture.completedFuture(allTime.getVotes(uuid));
+        }
+        return plugin.getDatabase().getTotalVotesAsync(uuid);
+    }
+
+    @Override
+    public long getVoteExpiry(UUID uuid) {
+        return plugin.getDatabase().getVoteExpiry(uuid);
+    }
+
+    @Override
+    public Subscription subscribe(VoteStatusListener listener) {
+        listeners.add(listener);
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            if (expiryTask == null && !listeners.isEmpty()) {
+                expiryTask = Bukkit.getScheduler().runTaskTimer(plugin, this::checkOnlinePlayers, EXPIRY_CHECK_TICKS, EXPIRY_CHECK_TICKS);
+            }
+        });
+
+        return () -> {
+            listeners.remove(listener);
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (expiryTask != null && listeners.isEmpty()) {
+                    expiryTask.cancel();
+                    expiryTask = null;
+                    lastStatus.clear();
+                }
+            });
+        };
+    }
+
+    private void checkOnlinePlayers() {
+        Map<UUID, VoteStatus> previous = new HashMap<>(lastStatus);
+        lastStatus.clear();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            UUID uuid = player.getUniqueId();
+            VoteStatus before = previous.get(uuid);
+            if (before != null) lastStatus.put(uuid, before);
+            // The first look at a player only records their status; it is not a change.
+            update(uuid, before != null);
+        }
+    }
+
+    /** Main thread: notifies the listeners if the player's status differs from the last one seen. */
+    private void update(UUID uuid, boolean notifyFirst) {
+        VoteStatus status = getCachedStatus(uuid);
+        if (status == VoteStatus.UNKNOWN) return;
+        VoteStatus before = lastStatus.put(uuid, status);
+        if (before == status || (before == null && !notifyFirst)) return;
+
+        for (VoteStatusListener listener : listeners) {
+            try {
+                listener.onStatusChange(uuid, status);
+            } catch (RuntimeException e) {
+                plugin.getLogger().warning("Vote status listener failed: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package dev.padrewin.votechecker.api;
+
+/**
+ * A player's vote status as far as VoteChecker knows it without asking the database.
+ */
+public enum VoteStatus {
+    /** Voted within the current vote window (on every site, if all sites are required). */
+    VOTED,
+    /** No (sufficient) vote within the current vote window. */
+    NOT_VOTED,
+    /** Not in memory; ask {@link VoteCheckerAPI#hasVotedToday} for a fresh answer. */
+    UNKNOWN;
+
+    public static VoteStatus of(Boolean voted) {
+        return voted == null ? UNKNOWN : voted ? VOTED : NOT_VOTED;
+    }
+}
@@ -0,0 +1,13 @@
+package dev.padrewin.votechecker.api;
+
+import java.util.UUID;
+
+/**
+ * Called on the main thread when a player's vote status changes: when they vote (or a vote
+ * is synced from another server), and when the vote of an online player stops counting.
+ */
+@FunctionalInterface
+public interface VoteStatusListener {
+
+    void onStatusChange(UUID uuid, VoteStatus status);
+}
@@ -0,0 +1,268 @@
+package dev.padrewin.votechecker.cache;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent, bounded index of each player's latest vote time.
+ * <p>
+ * Keys and values are kept as primitive longs in striped open-addressing tables,
+ * so an entry costs 24 bytes and lookups do not allocate.
+ * <p>
+ * The index also knows since when it is <i>complete</i>: once warmed from the database,
+ * every vote at or after {@link #getCoverageStart()} is in it, so a missing entry is a
+ * definite "no vote since then". When the size limit forces the oldest entries out,
+ * the coverage start moves forward past them and answers stay correct.
+ */
+public class LastVoteIndex {
+
+    /** Returned by {@link #getLastVote(UUID)} when the player has no entry. */
+    public static final long MISSING = -1L;
+
+    private static final int STRIPES = 64;
+    private static final int INITIAL_STRIPE_CAPACITY = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final int maxPerStripe;
+
+    private final AtomicLong evictedUpTo = new AtomicLong(Long.MIN_VALUE);
+    private volatile long warmedFrom = Long.MAX_VALUE;
+
+    public LastVoteIndex(int maxEntries) {
+        this.maxPerStripe = Math.max(INITIAL_STRIPE_CAPACITY / 2, maxEntries / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * @return the latest known vote time of the player, or {@link #MISSING}
+     */
+    public long getLastVote(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        return stripeFor(msb, lsb).get(msb, lsb);
+    }
+
+    /**
+     * Answers "has this player voted at or after {@code since}" from memory.
+     *
+     * @return TRUE or FALSE when the index can tell, null when the database has to be asked
+     */
+    public Boolean hasVotedSince(UUID uuid, long since) {
+        long last = getLastVote(uuid);
+        if (last != MISSING && last >= since) return Boolean.TRUE;
+        // No entry, or an older one: only a definite "no" if the index holds every vote since then.
+        return isCompleteSince(since) ? Boolean.FALSE : null;
+    }
+
+    /**
+     * Records a vote; keeps the newest time if the player already has an entry.
+     *
+     * @return true if the player's latest vote moved forward (or they had no entry), false if
+     * the index already knew this vote or a newer one
+     */
+    public boolean record(UUID uuid, long voteMillis) {
+        if (voteMillis <= 0) return false;
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        return stripeFor(msb, lsb).put(msb, lsb, voteMillis);
+    }
+
+    /** Drops one player's entry, e.g. after their votes were wiped. */
+    public void remove(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        stripeFor(msb, lsb).remove(msb, lsb);
+    }
+
+    /**
+     * Marks the index as complete for every vote at or after {@code fromMillis},
+     * after it was filled from the database.
+     */
+    public void markWarm(long fromMillis) {
+        this.warmedFrom = fromMillis;
+    }
+
+    /**
+     * Keeps the known votes but drops the completeness guarantee until the next {@link #markWarm},
+     * e.g. after votes were added to the database behind the index's back.
+     */
+    public void markCold() {
+        warmedFrom = Long.MAX_VALUE;
+    }
+
+    /** Forgets everything, including the completeness guarantee. */
+    public void clear() {
+        warmedFrom = Long.MAX_VALUE;
+        evictedUpTo.set(Long.MIN_VALUE);
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    /** Wipe of the whole vote table: nothing has been voted, and the index knows it. */
+    public void clearAndMarkComplete() {
+        clear();
+        warmedFrom = Long.MIN_VALUE;
+    }
+
+    /**
+     * @return the time from which the index holds every vote, or Long.MAX_VALUE while not warmed
+     */
+    public long getCoverageStart() {
+        long warm = warmedFrom;
+        if (warm == Long.MAX_VALUE) return Long.MAX_VALUE;
+        long evicted = evictedUpTo.get();
+        return evicted == Long.MIN_VALUE ? warm : Math.max(warm, evicted + 1);
+    }
+
+    public boolean isCompleteSince(long since) {
+        return getCoverageStart() <= since;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private Stripe stripeFor(long msb, long lsb) {
+        return stripes[(int) (mix(msb, lsb) >>> 58)]; // top 6 bits -> 64 stripes
+    }
+
+    private static long mix(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= h >>> 32;
+        h *= 0xD6E8FEB86659FD93L;
+        return h ^ (h >>> 32);
+    }
+
+    private final class Stripe {
+        private long[] msbs = new long[INITIAL_STRIPE_CAPACITY];
+        private long[] lsbs = new long[INITIAL_STRIPE_CAPACITY];
+        private long[] votes = new long[INITIAL_STRIPE_CAPACITY]; // 0 = empty slot
+        private int size;
+
+        synchronized long get(long msb, long lsb) {
+            int slot = find(msb, lsb);
+            return slot < 0 ? MISSING : votes[slot];
+        }
+
+        /** @return true if the entry was added or moved forward */
+        synchronized boolean put(long msb, long lsb, long vote) {
+            int slot = find(msb, lsb);
+            if (slot >= 0) {
+                if (vote <= votes[slot]) return false;
+                votes[slot] = vote;
+                return true;
+            }
+
+            if (size >= maxPerStripe) {
+                long evicted = evictOldest();
+                evictedUpTo.accumulateAndGet(evicted, Math::max);
+            } else if ((size + 1) * 4 > votes.length * 3) {
+                resize(votes.length * 2);
+            }
+            insert(msb, lsb, vote);
+            return true;
+        }
+
+        synchronized void remove(long msb, long lsb) {
+            int slot = find(msb, lsb);
+            if (slot >= 0) delete(slot);
+        }
+
+        synchronized void clear() {
+            msbs = new long[INITIAL_STRIPE_CAPACITY];
+            lsbs = new long[INITIAL_STRIPE_CAPACITY];
+            votes = new long[INITIAL_STRIPE_CAPACITY];
+            size = 0;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private int find(long msb, long lsb) {
+            int mask = votes.length - 1;
+            int slot = (int) mix(msb, lsb) & mask;
+            while (votes[slot] != 0) {
+                if (msbs[slot] == msb && lsbs[slot] == lsb) return slot;
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void insert(long msb, long lsb, long vote) {
+            int mask = votes.length - 1;
+            int slot = (int) mix(msb, lsb) & mask;
+            while (votes[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            msbs[slot] = msb;
+            lsbs[slot] = lsb;
+            votes[slot] = vote;
+            size++;
+        }
+
+        /** Backward-shift deletion, keeps probe chains intact without tombstones. */
+        private void delete(int slot) {
+            int mask = votes.length - 1;
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (votes[next] != 0) {
+                int home = (int) mix(msbs[next], lsbs[next]) & mask;
+                boolean movable = hole <= next ? (home <= hole || home > next) : (home <= hole && home > next);
+                if (movable) {
+                    msbs[hole] = msbs[next];
+                    lsbs[hole] = lsbs[next];
+                    votes[hole] = votes[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            votes[hole] = 0;
+            size--;
+        }
+
+        private void resize(int capacity) {
+            long[] oldMsbs = msbs;
+            long[] oldLsbs = lsbs;
+            long[] oldVotes = votes;
+            msbs = new long[capacity];
+            lsbs = new long[capacity];
+            votes = new long[capacity];
+            size = 0;
+            for (int i = 0; i < oldVotes.length; i++) {
+                if (oldVotes[i] != 0) insert(oldMsbs[i], oldLsbs[i], oldVotes[i]);
+            }
+        }
+
+        /** Drops the oldest quarter of the stripe; returns the newest time that was dropped. */
+        private long evictOldest() {
+            long[] live = new long[size];
+            int n = 0;
+            for (long vote : votes) {
+                if (vote != 0) live[n++] = vote;
+            }
+            Arrays.sort(live, 0, n);
+            long cutoff = live[Math.max(0, n / 4 - 1)];
+
+            long[] oldMsbs = msbs;
+            long[] oldLsbs = lsbs;
+            long[] oldVotes = votes;
+            msbs = new long[oldVotes.length];
+            lsbs = new long[oldVotes.length];
+            votes = new long[oldVotes.length];
+            size = 0;
+            for (int i = 0; i < oldVotes.length; i++) {
+                if (oldVotes[i] > cutoff) insert(oldMsbs[i], oldLsbs[i], oldVotes[i]);
+            }
+            return cutoff;
+        }
+    }
+}
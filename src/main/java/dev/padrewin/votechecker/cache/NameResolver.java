@@ -0,0 +1,57 @@
+package dev.padrewin.votechecker.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bounded LRU cache of player names to UUIDs, filled from joins and stored votes.
+ * <p>
+ * Votes must never wait for I/O before they are journaled, so the listener only asks this cache;
+ * names missing here are looked up in the vote table, then through Bukkit, on the write lane.
+ * Only real UUIDs are put here, never ones made up from a name.
+ */
+public class NameResolver {
+
+    private final Map<String, UUID> cache;
+
+    public NameResolver(int maxEntries) {
+        int capacity = Math.max(16, maxEntries);
+        this.cache = new LinkedHashMap<String, UUID>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UUID> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /** Cached UUID of the name, or null. */
+    public UUID getCached(String name) {
+        synchronized (cache) {
+            return cache.get(key(name));
+        }
+    }
+
+    public void put(String name, UUID uuid) {
+        synchronized (cache) {
+            cache.put(key(name), uuid);
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
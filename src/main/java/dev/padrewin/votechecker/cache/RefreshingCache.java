@@ -0,0 +1,119 @@
+package dev.padrewin.votechecker.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+
+/**
+ * Concurrent, size-bounded per-player cache for values that are loaded asynchronously,
+ * such as placeholder results.
+ * <p>
+ * Reads never block: they return the cached value (or the fallback before the first load)
+ * and start a background refresh once the value is older than {@code refreshAfterMs}, well
+ * before it would be considered stale. Only one load per player runs at a time. Invalidated
+ * entries are dropped at once, and a load that was already running for them is discarded.
+ */
+public class RefreshingCache<V> {
+
+    private final Map<UUID, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final BiFunction<UUID, String, CompletableFuture<V>> loader;
+    private final long refreshAfterMs;
+    private final long idleEvictMs;
+    private final int maxEntries;
+
+    /**
+     * @param loader      loads the value of a player (UUID and name)
+     * @param idleEvictMs entries not read for this long are dropped first when the cache is full
+     */
+    public RefreshingCache(BiFunction<UUID, String, CompletableFuture<V>> loader, long refreshAfterMs, long idleEvictMs, int maxEntries) {
+        this.loader = loader;
+        this.refreshAfterMs = refreshAfterMs;
+        this.idleEvictMs = idleEvictMs;
+        this.maxEntries = Math.max(16, maxEntries);
+    }
+
+    public V get(UUID uuid, String playerName, V fallback) {
+        long now = System.currentTimeMillis();
+        Entry<V> entry = entries.get(uuid);
+        if (entry == null) {
+            Entry<V> created = new Entry<>();
+            entry = entries.putIfAbsent(uuid, created);
+            if (entry == null) {
+                entry = created;
+                if (entries.size() > maxEntries) trim(now);
+            }
+        }
+
+        entry.lastAccess = now;
+        if (!entry.hasValue || now - entry.loadedAt >= refreshAfterMs) {
+            load(uuid, playerName, entry);
+        }
+        return entry.hasValue ? entry.value : fallback;
+    }
+
+    /** Stores a value that is already known, e.g. answered from memory. */
+    public void put(UUID uuid, V value) {
+        Entry<V> entry = new Entry<>();
+        entry.set(value, System.currentTimeMillis());
+        entries.put(uuid, entry);
+    }
+
+    public void invalidate(UUID uuid) {
+        entries.remove(uuid);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void load(UUID uuid, String playerName, Entry<V> entry) {
+        if (!entry.loading.compareAndSet(false, true)) return;
+
+        CompletableFuture<V> future;
+        try {
+            future = loader.apply(uuid, playerName);
+        } catch (RuntimeException e) {
+            entry.loading.set(false);
+            throw e;
+        }
+        future.whenComplete((value, error) -> {
+            // Skipped when the entry was invalidated meanwhile: the value may predate a vote.
+            if (error == null && entries.get(uuid) == entry) {
+                entry.set(value, System.currentTimeMillis());
+            }
+            entry.loading.set(false);
+        });
+    }
+
+    /** Drops idle entries, then arbitrary ones until the cache fits again. */
+    private void trim(long now) {
+        entries.values().removeIf(entry -> now - entry.lastAccess >= idleEvictMs);
+        Iterator<UUID> it = entries.keySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static final class Entry<V> {
+        final AtomicBoolean loading = new AtomicBoolean();
+        volatile V value;
+        volatile boolean hasValue;
+        volatile long loadedAt;
+        volatile long lastAccess;
+
+        void set(V value, long now) {
+            this.value = value;
+            this.loadedAt = now;
+            this.hasValue = true;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package dev.padrewin.votechecker.cache;
+
+import dev.padrewin.votechecker.window.VoteWindow;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-player record of which vote sites were voted on, each site with its own vote window.
+ * <p>
+ * Every configured site gets one bit; with {@code otherWindow} set, votes on any other service
+ * share one extra bit. Each entry keeps the latest vote per bit plus the mask of bits still
+ * inside their window and the time until which that mask stays exact (the first expiry of a
+ * set bit); until then a check is one mask comparison. Entries are immutable and replaced as a whole.
+ */
+public class SiteVoteIndex {
+
+    /** Most sites that fit into the mask next to the bit for other services. */
+    public static final int MAX_SITES = 32;
+
+    /** Returned by {@link #getVotedMask} when the database has to be asked. */
+    public static final long UNKNOWN = -1L;
+
+    private static final long NOT_COMPLETE = Long.MAX_VALUE;
+
+    private final Map<String, Integer> bits = new HashMap<>();
+    private final String[] names;
+    private final VoteWindow[] windows;
+    private final int otherBit;
+    private final long listedSites;
+    private final boolean requireAll;
+    private final int maxEntries;
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param windows     window of each site, same order as {@code names}
+     * @param otherWindow window for votes on services not in {@code names}, or null to ignore those
+     * @param requireAll  true if every listed site needs a vote, false if any vote counts
+     */
+    public SiteVoteIndex(List<String> names, List<VoteWindow> windows, VoteWindow otherWindow, boolean requireAll, int maxEntries) {
+        List<String> siteNames = new ArrayList<>();
+        List<VoteWindow> siteWindows = new ArrayList<>();
+        for (int i = 0; i < names.size() && siteNames.size() < MAX_SITES; i++) {
+            if (bits.putIfAbsent(key(names.get(i)), siteNames.size()) == null) {
+                siteNames.add(names.get(i));
+                siteWindows.add(windows.get(i));
+            }
+        }
+        this.listedSites = (1L << siteNames.size()) - 1L;
+        this.otherBit = otherWindow != null ? siteNames.size() : -1;
+        if (otherWindow != null) siteWindows.add(otherWindow);
+
+        this.names = siteNames.toArray(new String[0]);
+        this.windows = siteWindows.toArray(new VoteWindow[0]);
+        this.requireAll = requireAll;
+        this.maxEntries = Math.max(16, maxEntries);
+    }
+
+    /** Number of bits, including the one for other services. */
+    public int getBitCount() {
+        return windows.length;
+    }
+
+    /** Bit of the service, or -1 when its votes are not tracked. */
+    public int bitOf(String service) {
+        Integer bit = bits.get(key(service));
+        return bit != null ? bit : otherBit;
+    }
+
+    /** Oldest window start over all sites; no vote before it can count anywhere. */
+    public long minWindowStart(long nowMillis) {
+        long min = Long.MAX_VALUE;
+        for (VoteWindow window : windows) {
+            min = Math.min(min, window.windowStart(nowMillis));
+        }
+        return min;
+    }
+
+    /**
+     * Answers "has this player voted" (on every site, or on any site) from memory.
+     *
+     * @return TRUE or FALSE when the index can tell, null when the database has to be asked
+     */
+    public Boolean hasVoted(UUID uuid, long nowMillis) {
+        Entry entry = current(uuid, nowMillis);
+        if (entry == null) return null;
+        if (isSatisfied(entry.mask)) return Boolean.TRUE;
+        // Votes only add bits, so a missing one is only a definite "no" if every vote in the windows was loaded.
+        return isComplete(entry, nowMillis) ? Boolean.FALSE : null;
+    }
+
+    /**
+     * Bits of the sites the player voted on within their windows, or {@link #UNKNOWN}.
+     */
+    public long getVotedMask(UUID uuid, long nowMillis) {
+        Entry entry = current(uuid, nowMillis);
+        if (entry == null) return UNKNOWN;
+        if ((entry.mask & listedSites) == listedSites || isComplete(entry, nowMillis)) return entry.mask;
+        return UNKNOWN;
+    }
+
+    /**
+     * When the player's vote on the service stops counting (epoch millis): 0 if they can vote
+     * there now, {@link #UNKNOWN} if the database has to be asked. Does not allocate.
+     */
+    public long getExpiry(UUID uuid, String service, long nowMillis) {
+        int bit = bitOf(service);
+        Entry entry = entries.get(uuid);
+        if (bit < 0 || entry == null) return UNKNOWN;
+        long latest = entry.latest[bit];
+        if (latest > 0 && latest >= windows[bit].windowStart(nowMillis)) return windows[bit].nextExpiry(latest);
+        return isComplete(entry, nowMillis) ? 0L : UNKNOWN;
+    }
+
+    /** Names of the listed sites missing from {@code votedMask}. */
+    public List<String> getOpenSites(long votedMask) {
+        List<String> open = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            if ((votedMask & (1L << i)) == 0L) open.add(names[i]);
+        }
+        return open;
+    }
+
+    /** Records a single vote, e.g. a new one or one synced from another server. */
+    public void record(UUID uuid, String service, long voteMillis) {
+        int bit = bitOf(service);
+        if (bit < 0) return;
+        entries.compute(uuid, (id, entry) -> {
+            long[] latest = entry != null ? entry.latest.clone() : new long[windows.length];
+            if (voteMillis <= latest[bit]) return entry;
+            latest[bit] = voteMillis;
+            return new Entry(latest, entry != null ? entry.completeFrom : NOT_COMPLETE);
+        });
+        trim();
+    }
+
+    /**
+     * Stores what the database returned for a player: the latest vote per bit (0 for none)
+     * of every vote at or after {@code since}. Merged with votes recorded meanwhile.
+     */
+    public void load(UUID uuid, long[] latestPerBit, long since) {
+        merge(uuid, latestPerBit, since);
+    }
+
+    /**
+     * Adds votes found by a partial lookup (e.g. by UUID only, without the player's name).
+     * They count like recorded votes, but missing bits stay unknown until a full {@link #load}.
+     */
+    public void addVotes(UUID uuid, long[] latestPerBit) {
+        merge(uuid, latestPerBit, NOT_COMPLETE);
+    }
+
+    private void merge(UUID uuid, long[] latestPerBit, long since) {
+        entries.compute(uuid, (id, entry) -> {
+            long[] latest = latestPerBit.clone();
+            long completeFrom = since;
+            if (entry != null) {
+                for (int i = 0; i < latest.length; i++) latest[i] = Math.max(latest[i], entry.latest[i]);
+                completeFrom = Math.min(completeFrom, entry.completeFrom);
+            }
+            return new Entry(latest, completeFrom);
+        });
+        trim();
+    }
+
+    /**
+     * Keeps the known votes but makes every entry incomplete again, so missing sites are asked
+     * from the database until the player is loaded again.
+     */
+    public void markIncomplete() {
+        entries.replaceAll((uuid, entry) -> entry.completeFrom == NOT_COMPLETE ? entry : new Entry(entry.latest, NOT_COMPLETE));
+    }
+
+    /** Drops players without any vote at or after {@code since}. */
+    public void prune(long since) {
+        entries.values().removeIf(entry -> entry.newest() < since);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private Entry current(UUID uuid, long nowMillis) {
+        Entry entry = entries.get(uuid);
+        if (entry == null || entry.isMaskValid(nowMillis)) return entry;
+
+        Entry refreshed = entry.withMask(windows, nowMillis);
+        entries.replace(uuid, entry, refreshed);
+        return refreshed;
+    }
+
+    private boolean isSatisfied(long mask) {
+        return requireAll ? (mask & listedSites) == listedSites : mask != 0L;
+    }
+
+    private boolean isComplete(Entry entry, long nowMillis) {
+        return entry.completeFrom != NOT_COMPLETE && minWindowStart(nowMillis) >= entry.completeFrom;
+    }
+
+    private void trim() {
+        Iterator<UUID> it = entries.keySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static String key(String service) {
+        return service.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Entry {
+        final long[] latest;
+        final long completeFrom;
+        final long mask;
+        final long maskFrom;
+        final long maskTo;
+
+        /** Entry without a mask yet, computed on the first check. */
+        Entry(long[] latest, long completeFrom) {
+            this(latest, completeFrom, 0L, Long.MAX_VALUE, Long.MIN_VALUE);
+        }
+
+        private Entry(long[] latest, long completeFrom, long mask, long maskFrom, long maskTo) {
+            this.latest = latest;
+            this.completeFrom = completeFrom;
+            this.mask = mask;
+            this.maskFrom = maskFrom;
+            this.maskTo = maskTo;
+        }
+
+        boolean isMaskValid(long nowMillis) {
+            return nowMillis >= maskFrom && nowMillis < maskTo;
+        }
+
+        /** Windows only move forward, so the mask holds until the first of its votes expires. */
+        Entry withMask(VoteWindow[] windows, long nowMillis) {
+            long mask = 0L;
+            long until = Long.MAX_VALUE;
+            for (int i = 0; i < latest.length; i++) {
+                if (latest[i] > 0 && latest[i] >= windows[i].windowStart(nowMillis)) {
+                    mask |= 1L << i;
+                    until = Math.min(until, windows[i].nextExpiry(latest[i]));
+                }
+            }
+            return new Entry(latest, completeFrom, mask, nowMillis, until);
+        }
+
+        long newest() {
+            long newest = 0L;
+            for (long vote : latest) newest = Math.max(newest, vote);
+            return newest;
+        }
+    }
+}
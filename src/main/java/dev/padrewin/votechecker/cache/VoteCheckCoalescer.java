@@ -0,0 +1,131 @@
+package dev.padrewin.votechecker.cache;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Shares database vote checks between concurrent callers and briefly remembers "not voted".
+ * <p>
+ * While a check for a player is running, further checks for the same player get the same
+ * future. A "not voted" answer is kept for a short time, and dropped as soon as a vote for
+ * that player arrives. An answer that raced with a vote of the same player is not cached at all.
+ */
+public class VoteCheckCoalescer {
+
+    private final Map<UUID, Pending> inFlight = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> notVotedUntil = new ConcurrentHashMap<>();
+    private final LongSupplier negativeTtlMs;
+    private final int maxEntries;
+
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+
+    public VoteCheckCoalescer(LongSupplier negativeTtlMs, int maxEntries) {
+        this.negativeTtlMs = negativeTtlMs;
+        this.maxEntries = Math.max(16, maxEntries);
+    }
+
+    /**
+     * Answers from the negative cache, joins a running check, or starts {@code query}.
+     */
+    public CompletableFuture<Boolean> check(UUID uuid, Supplier<CompletableFuture<Boolean>> query) {
+        Long until = notVotedUntil.get(uuid);
+        if (until != null) {
+            if (System.currentTimeMillis() < until) {
+                negativeHits.incrementAndGet();
+                return CompletableFuture.completedFuture(false);
+            }
+            notVotedUntil.remove(uuid, until);
+        }
+
+        Pending existing = inFlight.get(uuid);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing.future;
+        }
+
+        Pending pending = new Pending();
+        existing = inFlight.putIfAbsent(uuid, pending);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing.future;
+        }
+
+        queries.incrementAndGet();
+        try {
+            query.get().whenComplete((voted, error) -> {
+                // Remembered before the check leaves inFlight, so a vote arriving meanwhile still finds it.
+                if (error == null && !voted) remember(uuid, pending);
+                inFlight.remove(uuid, pending);
+                if (error != null) {
+                    pending.future.completeExceptionally(error);
+                } else {
+                    pending.future.complete(voted);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(uuid, pending);
+            pending.future.completeExceptionally(e);
+        }
+        return pending.future;
+    }
+
+    /** A vote for the player arrived: forget any cached "not voted", and don't cache a running check. */
+    public void invalidate(UUID uuid) {
+        Pending pending = inFlight.get(uuid);
+        if (pending != null) pending.raced = true;
+        notVotedUntil.remove(uuid);
+    }
+
+    public void clear() {
+        for (Pending pending : inFlight.values()) {
+            pending.raced = true;
+        }
+        notVotedUntil.clear();
+    }
+
+    /** Drops expired "not voted" entries. */
+    public void prune() {
+        long now = System.currentTimeMillis();
+        notVotedUntil.values().removeIf(until -> until <= now);
+    }
+
+    private void remember(UUID uuid, Pending pending) {
+        long ttl = negativeTtlMs.getAsLong();
+        if (ttl <= 0 || pending.raced) return;
+        if (notVotedUntil.size() >= maxEntries) prune();
+        if (notVotedUntil.size() >= maxEntries) return;
+
+        Long until = System.currentTimeMillis() + ttl;
+        notVotedUntil.put(uuid, until);
+        // A vote that arrived while storing wins.
+        if (pending.raced) notVotedUntil.remove(uuid, until);
+    }
+
+    /** Database checks actually run. */
+    public long getQueries() {
+        return queries.get();
+    }
+
+    /** Checks that joined a running one instead of querying. */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    /** Checks answered from the negative cache. */
+    public long getNegativeHits() {
+        return negativeHits.get();
+    }
+
+    /** A running check; {@code raced} once a vote of its player arrived while it ran. */
+    private static final class Pending {
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        volatile boolean raced;
+    }
+}
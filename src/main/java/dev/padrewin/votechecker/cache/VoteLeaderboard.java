@@ -0,0 +1,165 @@
+package dev.padrewin.votechecker.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Vote ranking of one leaderboard period, kept sorted in memory.
+ * <p>
+ * Players are stored in one array ordered by votes (descending), with the index where each
+ * vote count starts. A vote moves the player to the front of its block and shifts the block
+ * start by one, so recording a vote, reading a position and looking up a rank are all O(1).
+ * Players with the same number of votes share a rank; their order among each other is arbitrary.
+ * <p>
+ * Votes are ignored until the ranking is {@link #load loaded}, because they are part of the load.
+ */
+public class VoteLeaderboard {
+
+    private final List<Entry> order = new ArrayList<>(); // by votes, descending
+    private final Map<UUID, Entry> players = new HashMap<>();
+    private final Map<Long, Integer> blockStart = new HashMap<>(); // votes -> first index with that many
+    private long periodStart;
+    private long periodEnd = Long.MIN_VALUE;
+    private boolean loaded;
+
+    public synchronized long getPeriodStart() {
+        return periodStart;
+    }
+
+    public synchronized long getPeriodEnd() {
+        return periodEnd;
+    }
+
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Replaces the ranking with loaded totals. Skipped when the board already moved on to a
+     * later period while the totals were being read.
+     */
+    public synchronized void load(long start, long end, Map<UUID, Entry> totals) {
+        if (loaded && start < periodStart) return;
+
+        order.clear();
+        players.clear();
+        blockStart.clear();
+        order.addAll(totals.values());
+        order.sort((a, b) -> Long.compare(b.votes, a.votes));
+        for (int i = 0; i < order.size(); i++) {
+            Entry entry = order.get(i);
+            entry.index = i;
+            players.put(entry.uuid, entry);
+            blockStart.putIfAbsent(entry.votes, i);
+        }
+        periodStart = start;
+        periodEnd = end;
+        loaded = true;
+    }
+
+    /** Starts a new, empty period; a no-op if that period (or a later one) is already running. */
+    public synchronized void startPeriod(long start, long end) {
+        if (start <= periodStart && periodEnd != Long.MIN_VALUE) return;
+        order.clear();
+        players.clear();
+        blockStart.clear();
+        periodStart = start;
+        periodEnd = end;
+    }
+
+    /** Drops the ranking until the next {@link #load}. */
+    public synchronized void unload() {
+        order.clear();
+        players.clear();
+        blockStart.clear();
+        periodEnd = Long.MIN_VALUE;
+        loaded = false;
+    }
+
+    /**
+     * Adds {@code count} votes made at {@code voteMillis}. Votes outside the current period are ignored.
+     */
+    public synchronized void record(UUID uuid, String playerName, long voteMillis, int count) {
+        if (!loaded || voteMillis < periodStart || voteMillis >= periodEnd) return;
+
+        Entry entry = players.get(uuid);
+        if (entry == null) {
+            entry = new Entry(uuid, playerName, 0L);
+            entry.index = order.size();
+            order.add(entry);
+            players.put(uuid, entry);
+            blockStart.putIfAbsent(0L, entry.index);
+        } else if (playerName != null) {
+            entry.name = playerName;
+        }
+        for (int i = 0; i < count; i++) {
+            increment(entry);
+        }
+    }
+
+    private void increment(Entry entry) {
+        long votes = entry.votes;
+        int first = blockStart.get(votes);
+        Entry swapped = order.get(first);
+        order.set(first, entry);
+        order.set(entry.index, swapped);
+        swapped.index = entry.index;
+        entry.index = first;
+
+        if (first + 1 < order.size() && order.get(first + 1).votes == votes) {
+            blockStart.put(votes, first + 1);
+        } else {
+            blockStart.remove(votes);
+        }
+        entry.votes = votes + 1;
+        blockStart.putIfAbsent(entry.votes, first);
+    }
+
+    /**
+     * Name and votes at 1-based {@code position}, or null if fewer players voted.
+     */
+    public synchronized Entry getEntry(int position) {
+        if (position < 1 || position > order.size()) return null;
+        Entry entry = order.get(position - 1);
+        return new Entry(entry.uuid, entry.name, entry.votes);
+    }
+
+    /** 1-based rank of the player, 0 if they did not vote in this period. */
+    public synchronized int getRank(UUID uuid) {
+        Entry entry = players.get(uuid);
+        return entry != null ? blockStart.get(entry.votes) + 1 : 0;
+    }
+
+    public synchronized long getVotes(UUID uuid) {
+        Entry entry = players.get(uuid);
+        return entry != null ? entry.votes : 0L;
+    }
+
+    public synchronized int size() {
+        return order.size();
+    }
+
+    public static final class Entry {
+        public final UUID uuid;
+        private String name;
+        private long votes;
+        private int index;
+
+        public Entry(UUID uuid, String name, long votes) {
+            this.uuid = uuid;
+            this.name = name;
+            this.votes = votes;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getVotes() {
+            return votes;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package dev.padrewin.votechecker.cache;
+
+import dev.padrewin.votechecker.window.LeaderboardPeriod;
+import dev.padrewin.votechecker.window.ScheduledWindow;
+import dev.padrewin.votechecker.window.VoteWindow;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One {@link VoteLeaderboard} per {@link LeaderboardPeriod}. A board rolls over to a new,
+ * empty period on the first read or vote after its period ended.
+ */
+public class VoteLeaderboards {
+
+    private final Map<LeaderboardPeriod, VoteLeaderboard> boards = new EnumMap<>(LeaderboardPeriod.class);
+    private volatile Calendar calendar = new Calendar(ZoneId.systemDefault(), DayOfWeek.MONDAY, LocalTime.MIDNIGHT);
+
+    public VoteLeaderboards() {
+        for (LeaderboardPeriod period : LeaderboardPeriod.values()) {
+            boards.put(period, new VoteLeaderboard());
+        }
+    }
+
+    /**
+     * Periods start at the first reset of a scheduled {@code vote-reset} (its time, and its day for
+     * weekly boards); with a rolling window at midnight, weeks on Monday.
+     */
+    public void configure(VoteWindow window, ZoneId zone) {
+        if (window instanceof ScheduledWindow) {
+            ScheduledWindow scheduled = (ScheduledWindow) window;
+            calendar = new Calendar(scheduled.getZone(), scheduled.getFirstResetDay(), scheduled.getFirstResetTime());
+        } else {
+            calendar = new Calendar(zone, DayOfWeek.MONDAY, LocalTime.MIDNIGHT);
+        }
+    }
+
+    public long periodStart(LeaderboardPeriod period, long nowMillis) {
+        Calendar current = calendar;
+        return period.start(nowMillis, current.zone, current.weekStart, current.resetTime);
+    }
+
+    public long periodEnd(LeaderboardPeriod period, long startMillis) {
+        Calendar current = calendar;
+        return period.end(startMillis, current.zone, current.weekStart, current.resetTime);
+    }
+
+    /** The board of the period running now. */
+    public VoteLeaderboard get(LeaderboardPeriod period) {
+        return current(period, System.currentTimeMillis());
+    }
+
+    private VoteLeaderboard current(LeaderboardPeriod period, long nowMillis) {
+        VoteLeaderboard board = boards.get(period);
+        if (nowMillis >= board.getPeriodEnd() && board.isLoaded()) {
+            long start = periodStart(period, nowMillis);
+            board.startPeriod(start, periodEnd(period, start));
+        }
+        return board;
+    }
+
+    public void record(UUID uuid, String playerName, long voteMillis, int count) {
+        long now = Math.max(System.currentTimeMillis(), voteMillis);
+        for (LeaderboardPeriod period : LeaderboardPeriod.values()) {
+            current(period, now).record(uuid, playerName, voteMillis, count);
+        }
+    }
+
+    public void unload() {
+        for (VoteLeaderboard board : boards.values()) {
+            board.unload();
+        }
+    }
+
+    private static final class Calendar {
+        final ZoneId zone;
+        final DayOfWeek weekStart;
+        final LocalTime resetTime;
+
+        Calendar(ZoneId zone, DayOfWeek weekStart, LocalTime resetTime) {
+            this.zone = zone;
+            this.weekStart = weekStart;
+            this.resetTime = resetTime;
+        }
+    }
+}
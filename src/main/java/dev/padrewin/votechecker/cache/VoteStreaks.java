@@ -0,0 +1,151 @@
+package dev.padrewin.votechecker.cache;
+
+import dev.padrewin.votechecker.window.LeaderboardPeriod;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-player daily vote streaks, kept in memory and updated with every vote.
+ * <p>
+ * A day is a {@link LeaderboardPeriod#DAILY} period of {@link VoteLeaderboards}. The streak
+ * counts consecutive days with at least one vote; it stays alive through the day after the last
+ * voted day and drops to 0 once that day passes without a vote. Reads compare two longs.
+ * <p>
+ * Players are only tracked once loaded from their full vote history. Votes recorded while a
+ * load runs are buffered and merged into it, so the history can be read without holding up
+ * the votes; a vote both read and buffered counts once, as streaks count days.
+ */
+public class VoteStreaks {
+
+    private final Map<UUID, Streak> streaks = new ConcurrentHashMap<>();
+    private final Map<UUID, Load> loading = new ConcurrentHashMap<>();
+    private final VoteLeaderboards calendar;
+    private final int maxEntries;
+
+    public VoteStreaks(VoteLeaderboards calendar, int maxEntries) {
+        this.calendar = calendar;
+        this.maxEntries = Math.max(16, maxEntries);
+    }
+
+    /** The player's streak, or null if not loaded. */
+    public Streak get(UUID uuid) {
+        return streaks.get(uuid);
+    }
+
+    /**
+     * Starts loading a player, before their history is read.
+     *
+     * @return the load to {@link #finishLoad finish} or {@link #cancelLoad cancel}, or null if one is already running
+     */
+    public Load beginLoad(UUID uuid) {
+        Load load = new Load(uuid);
+        return loading.putIfAbsent(uuid, load) == null ? load : null;
+    }
+
+    /**
+     * Builds the player's streak from all their vote times (any order) plus the votes recorded
+     * since {@link #beginLoad}. Dropped if the streaks were cleared meanwhile.
+     */
+    public void finishLoad(Load load, long[] voteTimes) {
+        synchronized (load) {
+            if (!loading.remove(load.uuid, load)) return;
+            long[] sorted = Arrays.copyOf(voteTimes, voteTimes.length + load.size);
+            System.arraycopy(load.recorded, 0, sorted, voteTimes.length, load.size);
+            Arrays.sort(sorted);
+
+            Streak streak = new Streak();
+            for (long voteMillis : sorted) {
+                add(streak, voteMillis);
+            }
+            streaks.put(load.uuid, streak);
+        }
+        if (streaks.size() > maxEntries) trim(load.uuid);
+    }
+
+    /** The history could not be read; the next request starts a new load. */
+    public void cancelLoad(Load load) {
+        loading.remove(load.uuid, load);
+    }
+
+    /** Counts a vote for a loaded player, or keeps it for a running load; others get it with their load. */
+    public void record(UUID uuid, long voteMillis) {
+        Streak streak = streaks.get(uuid);
+        if (streak != null) {
+            add(streak, voteMillis);
+            return;
+        }
+        Load load = loading.get(uuid);
+        if (load != null && load.record(voteMillis)) return;
+        // The load finished meanwhile.
+        streak = streaks.get(uuid);
+        if (streak != null) add(streak, voteMillis);
+    }
+
+    public void clear() {
+        loading.clear();
+        streaks.clear();
+    }
+
+    public int size() {
+        return streaks.size();
+    }
+
+    private void add(Streak streak, long voteMillis) {
+        synchronized (streak) {
+            if (voteMillis < streak.dayEnd) return; // same day, or a late vote for an older one
+
+            long dayStart = calendar.periodStart(LeaderboardPeriod.DAILY, voteMillis);
+            long dayEnd = calendar.periodEnd(LeaderboardPeriod.DAILY, dayStart);
+            streak.current = dayStart == streak.dayEnd ? streak.current + 1 : 1;
+            streak.best = Math.max(streak.best, streak.current);
+            streak.dayEnd = dayEnd;
+            streak.expires = calendar.periodEnd(LeaderboardPeriod.DAILY, dayEnd);
+        }
+    }
+
+    /** Drops arbitrary players (not the one just loaded) until the map fits again. */
+    private void trim(UUID keep) {
+        Iterator<UUID> it = streaks.keySet().iterator();
+        while (streaks.size() > maxEntries && it.hasNext()) {
+            if (!it.next().equals(keep)) it.remove();
+        }
+    }
+
+    /** A running load and the votes recorded while it runs. */
+    public final class Load {
+        private final UUID uuid;
+        private long[] recorded = new long[4];
+        private int size;
+
+        private Load(UUID uuid) {
+            this.uuid = uuid;
+        }
+
+        /** @return false if the load already finished */
+        private synchronized boolean record(long voteMillis) {
+            if (loading.get(uuid) != this) return false;
+            if (size == recorded.length) recorded = Arrays.copyOf(recorded, size * 2);
+            recorded[size++] = voteMillis;
+            return true;
+        }
+    }
+
+    public static final class Streak {
+        private int current;
+        private int best;
+        private long dayEnd = Long.MIN_VALUE; // end of the last day with a vote
+        private long expires = Long.MIN_VALUE; // end of the day after it
+
+        public synchronized int getCurrent(long nowMillis) {
+            return nowMillis < expires ? current : 0;
+        }
+
+        public synchronized int getBest() {
+            return best;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package dev.padrewin.votechecker.commands;
 
 import dev.padrewin.votechecker.VoteChecker;
+import dev.padrewin.votechecker.cache.VoteCheckCoalescer;
+import dev.padrewin.votechecker.database.CircuitBreaker;
+import dev.padrewin.votechecker.database.VoteBatchWriter;
 import dev.padrewin.votechecker.manager.CommandManager;
 import dev.padrewin.votechecker.manager.LocaleManager;
 import dev.padrewin.votechecker.setting.SettingKey;
@@ -36,6 +39,23 @@ public class InfoCommand extends BaseCommand {
         locale.sendCustomMessage(sender, baseColor + "<g:#635AA7:#E6D4F8:#9E48F6>VoteChecker");
         locale.sendCustomMessage(sender, baseColor + "Votifier hook: " + (votifierHooked ? "&a✔" : "&c✘"));
         locale.sendCustomMessage(sender, baseColor + "Database: " + (hasVotes ? "&aActive" : "&eEmpty"));
+        VoteBatchWriter.Stats batch = plugin.getDatabase().getBatchStats();
+        locale.sendCustomMessage(sender, baseColor + "Vote queue: &f" + batch.queueDepth + baseColor + " pending, &f"
+                + batch.votesWritten + baseColor + " written in &f" + batch.batches + baseColor + " batches");
+        locale.sendCustomMessage(sender, baseColor + "Batch size: &f" + String.format("%.1f", batch.averageBatchSize)
+                + baseColor + " avg, &f" + batch.largestBatchSize + baseColor + " max, &f" + batch.lastBatchSize + baseColor + " last"
+                + (batch.votesFailed > 0 ? " &c(" + batch.votesFailed + " failed)" : ""));
+        locale.sendCustomMessage(sender, baseColor + "Vote journal: &f" + (batch.journalBytes / 1024) + " KB"
+                + baseColor + ", &f" + batch.votesReplayed + baseColor + " replayed"
+                + (batch.replaying ? " &e(replaying)" : ""));
+        VoteCheckCoalescer checks = plugin.getDatabase().getCheckStats();
+        locale.sendCustomMessage(sender, baseColor + "Vote checks: &f" + checks.getQueries() + baseColor + " queried, &f"
+                + (checks.getCoalesced() + checks.getNegativeHits()) + baseColor + " saved (&f" + checks.getCoalesced()
+                + baseColor + " shared, &f" + checks.getNegativeHits() + baseColor + " cached)");
+        CircuitBreaker breaker = plugin.getDatabase().getCircuitBreaker();
+        locale.sendCustomMessage(sender, baseColor + "Database circuit: "
+                + (breaker.getState() == CircuitBreaker.State.CLOSED ? "&aclosed" : "&c" + breaker.getState().name().toLowerCase())
+                + baseColor + ", &f" + breaker.getRejected() + baseColor + " checks refused");
         locale.sendCustomMessage(sender, baseColor + "Plugin status: " + (pluginEnabled ? "&aenabled" : "&cdisabled"));
         locale.sendCustomMessage(sender, baseColor + "Blocked commands: &f" + blockedCount);
 
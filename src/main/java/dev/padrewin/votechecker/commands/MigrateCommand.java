@@ -1,6 +1,7 @@
 package dev.padrewin.votechecker.commands;
 
 import dev.padrewin.votechecker.VoteChecker;
+import dev.padrewin.votechecker.database.StorageType;
 import dev.padrewin.votechecker.manager.CommandManager;
 import dev.padrewin.votechecker.manager.LocaleManager;
 import dev.padrewin.colddev.utils.StringPlaceholders;
@@ -30,25 +31,39 @@ public class MigrateCommand extends BaseCommand {
             return;
         }
 
-        String from = args[0].toLowerCase();
-        String to = args[1].toLowerCase();
+        StorageType from = StorageType.fromNameOrNull(args[0]);
+        StorageType to = StorageType.fromNameOrNull(args[1]);
+        if (from == null || to == null) {
+            locale.sendMessage(sender, "command-migrate-usage");
+            return;
+        }
 
-        if (from.equals(to)) {
+        if (from == to) {
             locale.sendMessage(sender, "command-migrate-same-db");
             return;
         }
 
         locale.sendMessage(sender, "command-migrate-start",
-                StringPlaceholders.of("%from%", from.toUpperCase(), "%to%", to.toUpperCase())
+                StringPlaceholders.of("%from%", from.name(), "%to%", to.name())
         );
+        if (plugin.getDatabase().getMigrationCheckpoint(from, to).exists()) {
+            locale.sendMessage(sender, "command-migrate-resume");
+        }
 
-        plugin.getDatabase().migrateAsync(from, to).thenAccept(count -> {
+        plugin.getDatabase().migrateAsync(from, to, (copied, total, rate) ->
+                locale.sendMessage(sender, "command-migrate-progress", StringPlaceholders.of(
+                        "%copied%", String.valueOf(copied),
+                        "%total%", String.valueOf(total),
+                        "%rate%", String.valueOf(Math.round(rate)))
+                )
+        ).thenAccept(count -> {
             locale.sendMessage(sender, "command-migrate-success",
                     StringPlaceholders.of("%count%", String.valueOf(count))
             );
         }).exceptionally(ex -> {
+            Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
             locale.sendMessage(sender, "command-migrate-failed",
-                    StringPlaceholders.of("%error%", ex.getMessage())
+                    StringPlaceholders.of("%error%", cause.getMessage())
             );
             ex.printStackTrace();
             return null;
@@ -58,7 +73,7 @@ public class MigrateCommand extends BaseCommand {
     @Override
     public List<String> tabComplete(VoteChecker plugin, CommandSender sender, String[] args) {
         if (args.length == 1 || args.length == 2) {
-            return Arrays.asList("sqlite", "mysql");
+            return Arrays.asList("sqlite", "mysql", "local");
         }
         return Collections.emptyList();
     }
@@ -0,0 +1,88 @@
+package dev.padrewin.votechecker.database;
+
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Stops sending vote checks to a database that keeps failing.
+ * <p>
+ * After {@code failureThreshold} failures in a row the circuit opens and requests are refused
+ * right away. Once the backoff has passed, one request is let through as a probe: success
+ * closes the circuit, failure opens it again with twice the backoff, up to the maximum.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final long INITIAL_BACKOFF_MS = 1_000L;
+
+    private final Logger logger;
+    private final IntSupplier failureThreshold;
+    private final LongSupplier maxBackoffMs;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long backoffMs = INITIAL_BACKOFF_MS;
+    private long retryAt;
+    private long rejected;
+
+    public CircuitBreaker(Logger logger, IntSupplier failureThreshold, LongSupplier maxBackoffMs) {
+        this.logger = logger;
+        this.failureThreshold = failureThreshold;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    /**
+     * @return true if the request may go to the database (possibly as the recovery probe)
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.CLOSED) return true;
+        if (state == State.OPEN && System.currentTimeMillis() >= retryAt) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        rejected++;
+        return false;
+    }
+
+    public synchronized void recordSuccess() {
+        if (state != State.CLOSED) {
+            logger.info("Database vote checks are working again, circuit closed.");
+        }
+        state = State.CLOSED;
+        failures = 0;
+        backoffMs = INITIAL_BACKOFF_MS;
+    }
+
+    public synchronized void recordFailure() {
+        failures++;
+        if (state == State.HALF_OPEN) {
+            backoffMs = Math.min(backoffMs * 2, Math.max(INITIAL_BACKOFF_MS, maxBackoffMs.getAsLong()));
+            open();
+        } else if (state == State.CLOSED && failures >= Math.max(1, failureThreshold.getAsInt())) {
+            open();
+            logger.warning("Database vote checks failed " + failures + " times in a row, circuit opened.");
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        retryAt = System.currentTimeMillis() + backoffMs;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /** Requests refused while the circuit was open. */
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    public synchronized void reset() {
+        state = State.CLOSED;
+        failures = 0;
+        backoffMs = INITIAL_BACKOFF_MS;
+    }
+}
@@ -0,0 +1,179 @@
+package dev.padrewin.votechecker.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Small fixed-size JDBC connection pool.
+ * Connections are opened lazily, validated when they sat idle for a while
+ * and handed out as {@link Lease}s that return themselves on close.
+ */
+public class ConnectionPool {
+
+    /** Opens a new physical connection for the pool. */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private static final long VALIDATE_AFTER_IDLE_MS = 30_000L;
+    private static final int VALIDATE_TIMEOUT_SECONDS = 2;
+
+    private final String name;
+    private final int size;
+    private final ConnectionFactory factory;
+    private final BlockingQueue<Idle> idle;
+    private final Semaphore slots; // one per connection that may be leased at once
+    private final AtomicInteger opened = new AtomicInteger();
+    private volatile boolean closed;
+
+    public ConnectionPool(String name, int size, ConnectionFactory factory) {
+        this.name = name;
+        this.size = Math.max(1, size);
+        this.factory = factory;
+        this.idle = new ArrayBlockingQueue<>(this.size);
+        this.slots = new Semaphore(this.size, true);
+    }
+
+    /**
+     * Borrows a connection: an idle one if there is any, otherwise a new one. Waits for a free
+     * slot while {@code size} connections are leased; a slot frees up when a lease is closed,
+     * including when its connection is discarded, so waiters never wait for a slot that is unused.
+     *
+     * @param timeoutMs how long to wait for a free connection
+     * @return a lease that must be closed to give the connection back
+     */
+    public Lease acquire(long timeoutMs) throws SQLException {
+        if (closed) throw new SQLException("Connection pool '" + name + "' is closed");
+
+        try {
+            if (!slots.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + timeoutMs + "ms waiting for a '" + name + "' connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a '" + name + "' connection", e);
+        }
+
+        try {
+            Idle entry;
+            while ((entry = idle.poll()) != null) {
+                if (isUsable(entry)) return new Lease(entry.connection);
+                discard(entry.connection);
+            }
+            Connection connection = factory.open();
+            opened.incrementAndGet();
+            return new Lease(connection);
+        } catch (SQLException | RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    private boolean isUsable(Idle entry) {
+        try {
+            if (entry.connection.isClosed()) return false;
+            if (System.currentTimeMillis() - entry.since < VALIDATE_AFTER_IDLE_MS) return true;
+            return entry.connection.isValid(VALIDATE_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(Connection connection, boolean broken) {
+        try {
+            if (closed || broken || !reset(connection) || !idle.offer(new Idle(connection, System.currentTimeMillis()))) {
+                discard(connection);
+            }
+        } finally {
+            slots.release();
+        }
+    }
+
+    /** Rolls back a transaction left open by the borrower; false if the connection is unusable. */
+    private static boolean reset(Connection connection) {
+        try {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(Connection connection) {
+        opened.decrementAndGet();
+        try {
+            connection.close();
+        } catch (SQLException ignored) {}
+    }
+
+    /** Closes all idle connections; leased ones are closed when they come back. */
+    public void close() {
+        closed = true;
+        Idle entry;
+        while ((entry = idle.poll()) != null) {
+            discard(entry.connection);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getOpenCount() {
+        return opened.get();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    private static final class Idle {
+        final Connection connection;
+        final long since;
+
+        Idle(Connection connection, long since) {
+            this.connection = connection;
+            this.since = since;
+        }
+    }
+
+    /** A borrowed connection. Closing the lease hands the connection back to the pool. */
+    public final class Lease implements AutoCloseable {
+        private final Connection connection;
+        private boolean broken;
+        private boolean released;
+
+        private Lease(Connection connection) {
+            this.connection = connection;
+        }
+
+        public Connection get() {
+            return connection;
+        }
+
+        /** Marks the connection as unusable so it is closed instead of reused. */
+        public void markBroken() {
+            this.broken = true;
+        }
+
+        @Override
+        public void close() {
+            if (released) return;
+            released = true;
+            release(connection, broken);
+        }
+    }
+}
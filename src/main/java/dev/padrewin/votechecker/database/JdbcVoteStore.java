@@ -0,0 +1,619 @@
+package dev.padrewin.votechecker.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+import java.util.logging.Logger;
+
+/**
+ * SQL backend shared by SQLite and MySQL. Reads use a pool of read connections,
+ * writes a single write connection, so inserts keep their order.
+ */
+public abstract class JdbcVoteStore implements VoteStore {
+
+    private static final long ACQUIRE_TIMEOUT_MS = 10_000L;
+    private static final int IN_CHUNK_SIZE = 500; // below SQLite's default limit of 999 parameters
+
+    protected final Logger logger;
+    private final int readConnections;
+    private final SchemaMigrator schema;
+    private final VoteCompactor compactor;
+    private final String table;
+    private final String dailyTable;
+
+    private volatile ConnectionPool readPool;
+    private volatile ConnectionPool writePool;
+
+    protected JdbcVoteStore(Logger logger, String tablePrefix, int readConnections) {
+        this.logger = logger;
+        this.readConnections = Math.max(1, readConnections);
+        this.schema = new SchemaMigrator(logger, isMySQL(), tablePrefix);
+        this.table = tablePrefix + "votes";
+        this.dailyTable = schema.getDailyTableName();
+        this.compactor = new VoteCompactor(isMySQL(), table, dailyTable);
+    }
+
+    /** Opens a new physical connection. */
+    protected abstract Connection openConnection() throws SQLException;
+
+    protected abstract boolean isMySQL();
+
+    public String getTableName() {
+        return table;
+    }
+
+    @Override
+    public void open() throws VoteStoreException {
+        readPool = new ConnectionPool("read", readConnections, this::openConnection);
+        writePool = new ConnectionPool("write", 1, this::openConnection);
+
+        // Open the writer eagerly so configuration errors show up at startup.
+        try (ConnectionPool.Lease ignored = writePool.acquire(ACQUIRE_TIMEOUT_MS)) {
+            // Released right away; the schema is brought up to date on the write lane.
+        } catch (SQLException e) {
+            throw new VoteStoreException(e);
+        }
+    }
+
+    @Override
+    public void migrateSchema() throws VoteStoreException {
+        try (ConnectionPool.Lease lease = writePool.acquire(ACQUIRE_TIMEOUT_MS)) {
+            schema.migrate(lease.get());
+            logger.info("Table '" + table + "' checked/created ✅");
+        } catch (SQLException e) {
+            throw new VoteStoreException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (readPool != null) readPool.close();
+        if (writePool != null) writePool.close();
+    }
+
+    @Override
+    public String getDescription() {
+        return readConnections + " read connection(s) + 1 write connection";
+    }
+
+    /**
+     * Votes already in the table are looked up first (on the unique vote key, in the same
+     * transaction), so only new ones are inserted and reported; per-row update counts are not
+     * reliable with MySQL's rewritten batches. INSERT IGNORE still guards against another server
+     * storing the same vote meanwhile.
+     */
+    @Override
+    public List<StoredVote> insert(List<StoredVote> votes) throws VoteStoreException {
+        String rawInsert = SchemaMigrator.insertIgnore(isMySQL()) + " " + table +
+                " (player_uuid, player_name, player_name_lower, service_name, vote_time, vote_epoch) VALUES (?, ?, ?, ?, ?, ?)";
+        String dailyInsert = SchemaMigrator.insertIgnore(isMySQL()) + " " + dailyTable +
+                " (player_uuid, player_name, service_name, vote_day, vote_count, last_vote_epoch) VALUES (?, ?, ?, ?, ?, ?)";
+
+        try (ConnectionPool.Lease lease = writePool.acquire(ACQUIRE_TIMEOUT_MS)) {
+            Connection connection = lease.get();
+            connection.setAutoCommit(false);
+            try (PreparedStatement raw = connection.prepareStatement(rawInsert);
+                 PreparedStatement daily = connection.prepareStatement(dailyInsert)) {
+                Set<String> known = findStoredKeys(connection, votes);
+                List<StoredVote> inserted = new ArrayList<>();
+                int rawCount = 0;
+                int dailyCount = 0;
+                for (StoredVote vote : votes) {
+                    if (!known.add(voteKey(vote))) continue;
+                    inserted.add(vote);
+                    if (vote.isAggregate()) {
+                        daily.setString(1, vote.uuid.toString());
+                        daily.setString(2, vote.playerName);
+                        daily.setString(3, vote.serviceName);
+                        daily.setLong(4, Math.floorDiv(vote.voteMillis, VoteCompactor.DAY_MILLIS));
+                        daily.setInt(5, vote.count);
+                        daily.setLong(6, vote.voteMillis);
+                        daily.addBatch();
+                        dailyCount++;
+                    } else {
+                        raw.setString(1, vote.uuid.toString());
+                        raw.setString(2, vote.playerName);
+                        raw.setString(3, SchemaMigrator.normalizeName(vote.playerName));
+                        raw.setString(4, vote.serviceName);
+                        raw.setString(5, SchemaMigrator.formatLegacyTime(vote.voteMillis));
+                        raw.setLong(6, vote.voteMillis);
+                        raw.addBatch();
+                        rawCount++;
+                    }
+                }
+                if (rawCount > 0) raw.executeBatch();
+                if (dailyCount > 0) daily.executeBatch();
+                connection.commit();
+                return inserted;
+            } catch (SQLException e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException ignored) {
+                    lease.markBroken();
+                }
+                throw e;
+            } finally {
+                try {
+                    connection.setAutoCommit(true);
+                } catch (SQLException ignored) {
+                    lease.markBroken();
+                }
+            }
+        } catch (SQLException e) {
+            throw new VoteStoreException(e);
+        }
+    }
+
+    /** Unique keys of those of the votes that are already stored, see {@link #voteKey}. */
+    private Set<String> findStoredKeys(Connection connection, List<StoredVote> votes) throws SQLException {
+        Set<String> keys = new HashSet<>();
+        List<StoredVote> raw = new ArrayList<>();
+        List<StoredVote> aggregates = new ArrayList<>();
+        for (StoredVote vote : votes) {
+            (vote.isAggregate() ? aggregates : raw).add(vote);
+        }
+        collectStoredKeys(connection, "SELECT player_uuid, service_name, vote_epoch FROM " + table +
+                " WHERE player_uuid IN (%s) AND vote_epoch BETWEEN ? AND ?", raw, false, keys);
+        collectStoredKeys(connection, "SELECT player_uuid, service_name, vote_day FROM " + dailyTable +
+                " WHERE player_uuid IN (%s) AND vote_day BETWEEN ? AND ?", aggregates, true, keys);
+        return keys;
+    }
+
+    /** One range query per chunk of players, on idx_votes_uuid_epoch or the daily primary key. */
+    private void collectStoredKeys(Connection connection, String sql, List<StoredVote> votes, boolean byDay,
+                                   Set<String> keys) throws SQLException {
+        for (int from = 0; from < votes.size(); from += IN_CHUNK_SIZE) {
+            List<StoredVote> chunk = votes.subList(from, Math.min(votes.size(), from + IN_CHUNK_SIZE));
+            Set<UUID> uuids = new LinkedHashSet<>();
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (StoredVote vote : chunk) {
+                uuids.add(vote.uuid);
+                long time = byDay ? Math.floorDiv(vote.voteMillis, VoteCompactor.DAY_MILLIS) : vote.voteMillis;
+                min = Math.min(min, time);
+                max = Math.max(max, time);
+            }
+
+            try (PreparedStatement stmt = connection.prepareStatement(String.format(sql, placeholders(uuids.size())))) {
+                int index = bindUuids(stmt, new ArrayList<>(uuids));
+                stmt.setLong(index, min);
+                stmt.setLong(index + 1, max);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        keys.add(voteKey(rs.getString(1), rs.getString(2), rs.getLong(3), byDay));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The unique key of a vote: player, service and time (raw votes) or day (aggregates).
+     * MySQL compares service names case-insensitively, so they are folded there.
+     */
+    private String voteKey(StoredVote vote) {
+        boolean byDay = vote.isAggregate();
+        long time = byDay ? Math.floorDiv(vote.voteMillis, VoteCompactor.DAY_MILLIS) : vote.voteMillis;
+        return voteKey(vote.uuid.toString(), vote.serviceName, time, byDay);
+    }
+
+    private String voteKey(String uuid, String service, long time, boolean byDay) {
+        String folded = isMySQL() ? service.toLowerCase(Locale.ROOT) : service;
+        return (byDay ? "d:" : "r:") + uuid + '\n' + folded + '\n' + time;
+    }
+
+    /**
+     * UUID lookup first (an index seek on idx_votes_uuid_epoch). Only when that finds nothing
+     * since {@code since} do we look for votes stored under the same name with another UUID,
+     * e.g. votes cast before the first join.
+     */
+    @Override
+    public long findLatestVote(UUID uuid, String playerName, long since) throws VoteStoreException {
+        try (ConnectionPool.Lease lease = readPool.acquire(ACQUIRE_TIMEOUT_MS)) {
+            Connection connection = lease.get();
+            long latest = 0L;
+
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT MAX(vote_epoch) FROM " + table + " WHERE player_uuid = ?")) {
+                stmt.setString(1, uuid.toString());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) latest = rs.getLong(1);
+                }
+            }
+
+            if (latest >= since || playerName == null || playerName.isEmpty()) return latest;
+
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT MAX(vote_epoch) FROM " + table + " WHERE player_name_lower = ?")) {
+                stmt.setString(1, SchemaMigrator.normalizeName(playerName));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) latest = Math.max(latest, rs.getLong(1));
+                }
+            }
+            return latest;
+        } catch (SQLException e) {
+            throw new VoteStoreException(e);
+        }
+    }
+
+    @Override
+    public void loadLatestVotes(long since, LatestVoteSink sink) throws VoteStoreException {
+        try (ConnectionPool.Lease lease = readPool.acquire(ACQUIRE_TIMEOUT_MS);
+             PreparedStatement stmt = lease.get().prepareStatement(
+                     "SELECT player_uuid, MAX(vote_epoch) FROM " + table + " WHERE vote_epoch >= ? GROUP BY player_uuid")) {
+            stmt.setLong(1, since);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    UUID uuid = parseUuid(rs.getString(1));
+                    if (uuid != null) sink.accept(uuid, rs.getLong(2));
+                }
+            }
+        } catch (SQLException e) {
+            throw new VoteStoreException(e);
+        }
+    }
+
+    /** Chunked {@code IN (...)} lookups on idx_votes_uuid_epoch, one grouped query per chunk. */
+    @Override
+    public void findLatestVotes(Collection<UUID> uuids, long since, LatestVoteSink sink) throws VoteStoreException {
+        forEachChunk(uuids, (connection, chunk) -> {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT player_uuid, MAX(vote_epoch) FROM " + table + " WHERE player_uuid IN (" + placeholders(chunk.size()) +
+                            ") AND vote_epoch >= ? GROUP BY player_uuid")) {
+                int index = bindUuids(stmt, chunk);
+                stmt.setLong(index, since);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        UUID uuid = parseUuid(rs.getString(1));
+                        if (uuid != null) sink.accept(uuid, rs.getLong(2));
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void findLatestSiteVotes(Collection<UUID> uuids, long since, SiteVoteSink sink) throws VoteStoreException {
+        forEachChunk(uuids, (connection, chunk) -> {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT player_uuid, service_name, MAX(vote_epoch) FROM " + table + " WHERE player_uuid IN (" + placeholders(chunk.size()) +
+                            ") AND vote_epoch >= ? GROUP BY player_uuid, service_name")) {
+                int index = bindUuids(stmt, chunk);
+                stmt.setLong(index, since);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        UUID uuid = parseUuid(rs.getString(1));
+                        if (uuid != null) sink.accept(uuid, rs.getString(2), rs.getLong(3));
+                    }
+                }
+            }
+        });
+    }
+
+    /** One query per chunk of UUIDs. */
+    @FunctionalInterface
+    private interface ChunkQuery {
+        void run(Connection connection, List<UUID> chunk) throws SQLException;
+    }
+
+    private void forEachChunk(Collection<UUID> uuids, ChunkQuery query) throws VoteStoreException {
+        if (uuids.isEmpty()) return;
+        List<UUID> all = new ArrayList<>(uuids);
+        try (ConnectionPool.Lease lease = readPool.acquire(ACQUIRE_TIMEOUT_MS)) {
+            for (int from = 0; from < all.size(); from += IN_CHUNK_SIZE) {
+                query.run(lease.get(), all.subList(from, Math.min(all.size(), from + IN_CHUNK_SIZE)));
+            }
+        } catch (SQLException e) {
+            throw new VoteStoreException(e);
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /** @return the next parameter index */
+    private static int bindUuids(PreparedStatement stmt, List<UUID> uuids) throws SQLException {
+        int index = 1;
+        for (UUID uuid : uuids) {
+            stmt.setString(index++, uuid.toString());
+        }
+        return index;
+    }
+
+    /**
+     * Raw votes only: compaction keeps far more days than any vote window spans. Two index
+     * seeks instead of an OR over both columns, which most planners answer with a scan:
+     * by UUID on idx_votes_uuid_epoch, then by name on idx_votes_name_epoch.
+     */
+    @Override
+    public void findLatestSiteVotes(UUID uuid, String playerName, long since, SiteVoteSink sink) throws VoteStoreException {
+        try (ConnectionPool.Lease lease = readPool.acquire(ACQUIRE_TIMEOUT_MS)) {
+            Connection connection = lease.get();
+            findLatestSiteVotes(connection, "player_uuid", uuid.toString(), uuid, since, sink);
+            if (playerName != null && !playerName.isEmpty()) {
+                findLatestSiteVotes(connection, "player_name_lower", SchemaMigrator.normalizeName(playerName), uuid, since, sink);
+            }
+        } catch (SQLException e) {
+            throw new VoteStoreException(e);
+        }
+    }
+
+    private void findLatestSiteVotes(Connection connection, String column, String value, UUID uuid, long since,
+                                     SiteVoteSink sink) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT service_name, MAX(vote_epoch) FROM " + table +
+                        " WHERE " + column + " = ? AND vote_epoch >= ? GROUP BY service_name")) {
+            stmt.setString(1, value);
+            stmt.setLong(2, since);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sink.accept(uuid, rs.getString(1), rs.getLong(2));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void loadLatestSiteVotes(long since, SiteVoteSink sink) throws VoteStoreException {
+        try (ConnectionPool.Lease lease = readPool.acquire(ACQUIRE_TIMEOUT_MS);
+             PreparedStatement stmt = lease.get().prepareStatement(
+                     "SELECT player_uuid, service_name, MAX(vote_epoch) FROM " + table +
+                             " WHERE vote_epoch >= ? GROUP BY player_uuid, service_name")) {
+            stmt.setLong(1, since);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    UUID uuid = parseUuid(rs.getString(1));
+                    if (uuid != null) sink.accept(uuid, rs.getString(2), rs.getLong(3));
+                }
+            }
+        } catch (SQLException e) {
+            throw new VoteStoreException(e);
+        }
+    }
+
+    @Override
+    public UUID findUuidByName(String playerName) throws VoteStoreException {
+        try (ConnectionPool.Lease lease = readPool.acquire(ACQUIRE_TIMEOUT_MS);
+             PreparedStatement stmt = lease.get().prepareStatement(
+                     "SELECT player_uuid FROM " + table + " WHERE player_name_lower = ? ORDER BY vote_epoch DESC LIMIT 1")) {
+            stmt.setString(1, SchemaMigrator.normalizeName(playerName));
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? parseUuid(rs.getString(1)) : null;
+            }
+        } catch (SQLException e) {
+            throw new VoteStoreException(e);
+        }
+    }
+
+    /** Raw rows plus the compacted daily totals. */
+    @Override
+    public long countVotes(UUID uuid) throws VoteStoreException {
+        try (ConnectionPool.Lease lease = readPool.acquire(ACQUIRE_TIMEOUT_MS);
+             PreparedStatement stmt = lease.get().prepareStatement(
+                     "SELECT (SELECT COUNT(*) FROM " + table + " WHERE player_uuid = ?)" +
+                             " + (SELECT COALESCE(SUM(vote_count), 0) FROM " + dailyTable + " WHERE player_uuid = ?)")) {
+            stmt.setString(1, uuid.toString());
+            stmt.setString(2, uuid.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        } catch (SQLException e) {
+            throw new VoteStoreException(e);
+        }
+    }
+
+    /** Rolled-up days count as a whole when their last vote is at or after {@code since}. */
+    @Override
+    public void loadVoteCounts(long since, VoteCountSink sink) throws VoteStoreException {
+        Map<UUID, Long> counts = new HashMap<>();
+        Map<UUID, String> names = new HashMap<>();
+        try (ConnectionPool.Lease lease = readPool.acquire(ACQUIRE_TIMEOUT_MS)) {
+            Connection connection = lease.get();
+            collectCounts(connection, "SELECT player_uuid, MAX(player_name), SUM(vote_count) FROM " + dailyTable +
+                    " WHERE last_vote_epoch >= ? GROUP BY player_uuid", since, counts, names);
+            collectCounts(connection, "SELECT player_uuid, MAX(player_name), COUNT(*) FROM " + table +
+                    " WHERE vote_epoch >= ? GROUP BY player_uuid", since, counts, names);
+        } catch (SQLException e) {
+            throw new VoteStoreException(e);
+        }
+        counts.forEach((uuid, votes) -> sink.accept(uuid, names.get(uuid), votes));
+    }
+
+    private static void collectCounts(Connection connection, String sql, long since,
+                                      Map<UUID, Long> counts, Map<UUID, String> names) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setLong(1, since);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    UUID uuid = parseUuid(rs.getString(1));
+                    if (uuid == null) continue;
+                    names.put(uuid, rs.getString(2));
+                    counts.merge(uuid, rs.getLong(3), Long::sum);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void findVoteTimes(UUID uuid, LongConsumer sink) throws VoteStoreException {
+        try (ConnectionPool.Lease lease = readPool.acquire(ACQUIRE_TIMEOUT_MS)) {
+            Connection connection = lease.get();
+            collectTimes(connection, "SELECT vote_epoch FROM " + table + " WHERE player_uuid = ?", uuid, sink);
+            collectTimes(connection, "SELECT last_vote_epoch FROM " + dailyTable + " WHERE player_uuid = ?", uuid, sink);
+        } catch (SQLException e) {
+            throw new VoteStoreException(e);
+        }
+    }
+
+    private static void collectTimes(Connection connection, String sql, UUID uuid, LongConsumer sink) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, uuid.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long voteMillis = rs.getLong(1);
+                    if (!rs.wasNull()) sink.accept(voteMillis);
+                }
+            }
+        }
+    }
+
+    @Override
+    public long countRecords() throws VoteStoreException {
+        return queryLong("SELECT COUNT(*) FROM " + table);
+    }
+
+    @Override
+    public boolean isEmpty() throws VoteStoreException {
+        return queryLong("SELECT COUNT(*) FROM (SELECT 1 FROM " + table + " LIMIT 1) r") == 0L
+                && queryLong("SELECT COUNT(*) FROM (SELECT 1 FROM " + dailyTable + " LIMIT 1) d") == 0L;
+    }
+
+    @Override
+    public void wipe() throws VoteStoreException {
+        try (ConnectionPool.Lease lease = writePool.acquire(ACQUIRE_TIMEOUT_MS);
+             Statement stmt = lease.get().createStatement()) {
+            stmt.executeUpdate("DELETE FROM " + table);
+            stmt.executeUpdate("DELETE FROM " + dailyTable);
+        } catch (SQLException e) {
+            throw new VoteStoreException(e);
+        }
+    }
+
+    /** Keyset pagination on the row id. */
+    @Override
+    public long scan(long cursor, int limit, List<StoredVote> out) throws VoteStoreException {
+        try (ConnectionPool.Lease lease = readPool.acquire(ACQUIRE_TIMEOUT_MS);
+             PreparedStatement stmt = lease.get().prepareStatement(
+                     "SELECT id, player_uuid, player_name, service_name, vote_time, vote_epoch FROM " + table +
+                             " WHERE id > ? ORDER BY id LIMIT ?")) {
+            stmt.setLong(1, cursor);
+            stmt.setInt(2, limit);
+            long next = cursor;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    next = rs.getLong(1);
+                    UUID uuid = parseUuid(rs.getString(2));
+                    if (uuid == null) continue;
+                    long epoch = rs.getLong(6);
+                    if (rs.wasNull()) epoch = SchemaMigrator.parseLegacyTime(rs.getString(5), ZoneId.systemDefault());
+                    out.add(new StoredVote(uuid, rs.getString(3), rs.getString(4), epoch));
+                }
+            }
+            return next;
+        } catch (SQLException e) {
+            throw new VoteStoreException(e);
+        }
+    }
+
+    /**
+     * Keyset pagination on the primary key (player, service, day), compared as a row value.
+     * The cursor is "uuid\nday\nservice" of the last row read.
+     */
+    @Override
+    public String scanAggregates(String cursor, int limit, List<StoredVote> out) throws VoteStoreException {
+        String[] last = cursor.isEmpty() ? null : cursor.split("\n", 3);
+        if (last != null && (last.length != 3 || !last[1].matches("-?\\d+"))) {
+            throw new VoteStoreException("Invalid rolled-up history cursor");
+        }
+        try (ConnectionPool.Lease lease = readPool.acquire(ACQUIRE_TIMEOUT_MS);
+             PreparedStatement stmt = lease.get().prepareStatement(
+                     "SELECT player_uuid, player_name, service_name, vote_count, last_vote_epoch, vote_day FROM " + dailyTable +
+                             (last != null ? " WHERE (player_uuid, service_name, vote_day) > (?, ?, ?)" : "") +
+                             " ORDER BY player_uuid, service_name, vote_day LIMIT ?")) {
+            int index = 1;
+            if (last != null) {
+                stmt.setString(index++, last[0]);
+                stmt.setString(index++, last[2]);
+                stmt.setLong(index++, Long.parseLong(last[1]));
+            }
+            stmt.setInt(index, limit);
+            String next = cursor;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    next = rs.getString(1) + "\n" + rs.getLong(6) + "\n" + rs.getString(3);
+                    UUID uuid = parseUuid(rs.getString(1));
+                    int count = rs.getInt(4);
+                    if (uuid != null && count > 0) out.add(new StoredVote(uuid, rs.getString(2), rs.getString(3), rs.getLong(5), count));
+                }
+            }
+            return next;
+        } catch (SQLException e) {
+            throw new VoteStoreException(e);
+        }
+    }
+
+    @Override
+    public long countPendingUpgrade() throws VoteStoreException {
+        try (ConnectionPool.Lease lease = writePool.acquire(ACQUIRE_TIMEOUT_MS)) {
+            return schema.countPendingBackfill(lease.get());
+        } catch (SQLException e) {
+            throw new VoteStoreException(e);
+        }
+    }
+
+    @Override
+    public int upgradeRecent(long sinceMillis, int chunkSize) throws VoteStoreException {
+        try (ConnectionPool.Lease lease = writePool.acquire(ACQUIRE_TIMEOUT_MS)) {
+            return schema.backfillRecent(lease.get(), chunkSize, sinceMillis);
+        } catch (SQLException e) {
+            throw new VoteStoreException(e);
+        }
+    }
+
+    /** Fills vote_epoch, then player_name_lower, for legacy rows. */
+    @Override
+    public int upgradeStep(int chunkSize) throws VoteStoreException {
+        try (ConnectionPool.Lease lease = writePool.acquire(ACQUIRE_TIMEOUT_MS)) {
+            int converted = schema.backfillEpochChunk(lease.get(), chunkSize);
+            if (converted == 0) {
+                converted = schema.backfillNameChunk(lease.get(), chunkSize);
+            }
+            return converted;
+        } catch (SQLException e) {
+            throw new VoteStoreException(e);
+        }
+    }
+
+    @Override
+    public int compactStep(long cutoffMillis, int chunkSize) throws VoteStoreException {
+        try (ConnectionPool.Lease lease = writePool.acquire(ACQUIRE_TIMEOUT_MS)) {
+            return compactor.compactChunk(lease.get(), cutoffMillis, chunkSize);
+        } catch (SQLException e) {
+            throw new VoteStoreException(e);
+        }
+    }
+
+    private long queryLong(String sql) throws VoteStoreException {
+        try (ConnectionPool.Lease lease = readPool.acquire(ACQUIRE_TIMEOUT_MS);
+             Statement stmt = lease.get().createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        } catch (SQLException e) {
+            throw new VoteStoreException(e);
+        }
+    }
+
+    private static UUID parseUuid(String raw) {
+        try {
+            return raw == null ? null : UUID.fromString(raw);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,509 @@
+package dev.padrewin.votechecker.database;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Embedded backend: an append-only log file plus an in-memory per-player index.
+ * <p>
+ * Votes are appended as CRC-checked binary records and forced to disk once per batch. On open
+ * the log is read sequentially to rebuild the index (latest vote and total per player, latest
+ * UUID per name, every vote time, and a set of vote hashes for idempotent inserts). Lookups never
+ * touch the disk. The index costs roughly 24 bytes per stored vote plus one small entry per player.
+ * <p>
+ * Only one server can use a log; it is not meant to be shared.
+ */
+public class LogVoteStore implements VoteStore {
+
+    private static final int HEADER_BYTES = 8;
+    private static final int FIXED_PAYLOAD_BYTES = 8 * 3 + 4 + 2 + 2;
+    private static final int MAX_PAYLOAD_BYTES = 64 * 1024;
+    private static final int READ_BUFFER_BYTES = 1 << 20;
+
+    private final Logger logger;
+    private final File file;
+
+    private final Map<UUID, PlayerStats> players = new ConcurrentHashMap<>();
+    private final Map<String, NameEntry> names = new ConcurrentHashMap<>();
+    private final LongHashSet stored = new LongHashSet(); // writer only
+
+    private FileChannel channel;
+    private long writePosition; // writer only
+    private volatile long committedSize;
+    private volatile long records;
+
+    public LogVoteStore(Logger logger, File file) {
+        this.logger = logger;
+        this.file = file;
+    }
+
+    @Override
+    public StorageType getType() {
+        return StorageType.LOCAL;
+    }
+
+    @Override
+    public String getDescription() {
+        return "embedded vote log (" + file.getName() + ", " + records + " record(s))";
+    }
+
+    @Override
+    public synchronized void open() throws VoteStoreException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) parent.mkdirs();
+
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            committedSize = size;
+
+            long started = System.currentTimeMillis();
+            long end = read(0L, Integer.MAX_VALUE, this::index);
+            if (end < size) {
+                logger.warning("Vote log had a damaged tail (" + (size - end) + " bytes), truncating it.");
+                channel.truncate(end);
+            }
+            writePosition = end;
+            committedSize = end;
+            if (records > 0) {
+                logger.info("Loaded " + records + " vote(s) of " + players.size() + " player(s) from " + file.getName()
+                        + " in " + (System.currentTimeMillis() - started) + "ms ✅");
+            }
+        } catch (IOException e) {
+            throw new VoteStoreException("Failed to open " + file.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel == null) return;
+        try {
+            channel.force(true);
+            channel.close();
+        } catch (IOException e) {
+            logger.warning("Failed to close " + file.getName() + ": " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    @Override
+    public synchronized List<StoredVote> insert(List<StoredVote> votes) throws VoteStoreException {
+        ensureOpen();
+
+        int bytes = 0;
+        byte[][] encodedNames = new byte[votes.size()][];
+        byte[][] encodedServices = new byte[votes.size()][];
+        boolean[] fresh = new boolean[votes.size()];
+        LongHashSet batchKeys = new LongHashSet();
+        for (int i = 0; i < votes.size(); i++) {
+            StoredVote vote = votes.get(i);
+            long key = key(vote);
+            if (stored.contains(key) || !batchKeys.add(key)) continue;
+            fresh[i] = true;
+            encodedNames[i] = vote.playerName.getBytes(StandardCharsets.UTF_8);
+            encodedServices[i] = vote.serviceName.getBytes(StandardCharsets.UTF_8);
+            bytes += HEADER_BYTES + FIXED_PAYLOAD_BYTES + encodedNames[i].length + encodedServices[i].length;
+        }
+        if (bytes == 0) return Collections.emptyList();
+
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < votes.size(); i++) {
+            if (!fresh[i]) continue;
+            StoredVote vote = votes.get(i);
+            int start = buffer.position();
+            int payloadLength = FIXED_PAYLOAD_BYTES + encodedNames[i].length + encodedServices[i].length;
+            buffer.putInt(payloadLength);
+            buffer.putInt(0);
+            buffer.putLong(vote.voteMillis);
+            buffer.putLong(vote.uuid.getMostSignificantBits());
+            buffer.putLong(vote.uuid.getLeastSignificantBits());
+            buffer.putInt(vote.count);
+            buffer.putShort((short) encodedNames[i].length);
+            buffer.put(encodedNames[i]);
+            buffer.putShort((short) encodedServices[i].length);
+            buffer.put(encodedServices[i]);
+
+            crc.reset();
+            crc.update(buffer.array(), start + HEADER_BYTES, payloadLength);
+            buffer.putInt(start + 4, (int) crc.getValue());
+        }
+        buffer.flip();
+
+        try {
+            long position = writePosition;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.force(false);
+            writePosition = position;
+            committedSize = position;
+        } catch (IOException e) {
+            // Whatever part made it to disk is cut off again, the batch is retried as a whole.
+            try {
+                channel.truncate(writePosition);
+            } catch (IOException ignored) {}
+            throw new VoteStoreException("Failed to append to " + file.getName() + ": " + e.getMessage(), e);
+        }
+
+        List<StoredVote> inserted = new ArrayList<>();
+        for (int i = 0; i < votes.size(); i++) {
+            if (!fresh[i]) continue;
+            index(votes.get(i));
+            inserted.add(votes.get(i));
+        }
+        return inserted;
+    }
+
+    /** Writer only: adds a stored vote to the in-memory index. */
+    private void index(StoredVote vote) {
+        stored.add(key(vote));
+        records++;
+
+        PlayerStats stats = players.computeIfAbsent(vote.uuid, uuid -> new PlayerStats());
+        stats.total += vote.count;
+        stats.name = vote.playerName;
+        stats.addTime(vote.voteMillis);
+        if (vote.voteMillis > stats.latest) stats.latest = vote.voteMillis;
+        stats.sites.merge(vote.serviceName, vote.voteMillis, Math::max);
+
+        String name = vote.playerName.toLowerCase(Locale.ROOT);
+        NameEntry current = names.get(name);
+        if (current == null || vote.voteMillis >= current.voteMillis) {
+            names.put(name, new NameEntry(vote.uuid, vote.voteMillis));
+        }
+    }
+
+    @Override
+    public long findLatestVote(UUID uuid, String playerName, long since) {
+        PlayerStats stats = players.get(uuid);
+        long latest = stats != null ? stats.latest : 0L;
+        if (latest >= since || playerName == null || playerName.isEmpty()) return latest;
+
+        NameEntry byName = names.get(playerName.toLowerCase(Locale.ROOT));
+        if (byName != null && !byName.uuid.equals(uuid)) {
+            PlayerStats other = players.get(byName.uuid);
+            if (other != null) latest = Math.max(latest, other.latest);
+        }
+        return latest;
+    }
+
+    @Override
+    public void loadLatestVotes(long since, LatestVoteSink sink) {
+        players.forEach((uuid, stats) -> {
+            long latest = stats.latest;
+            if (latest >= since) sink.accept(uuid, latest);
+        });
+    }
+
+    @Override
+    public void findLatestVotes(Collection<UUID> uuids, long since, LatestVoteSink sink) {
+        for (UUID uuid : uuids) {
+            PlayerStats stats = players.get(uuid);
+            if (stats != null && stats.latest >= since) sink.accept(uuid, stats.latest);
+        }
+    }
+
+    @Override
+    public void findLatestSiteVotes(Collection<UUID> uuids, long since, SiteVoteSink sink) {
+        for (UUID uuid : uuids) {
+            PlayerStats stats = players.get(uuid);
+            if (stats == null || stats.latest < since) continue;
+            stats.sites.forEach((service, voteMillis) -> {
+                if (voteMillis >= since) sink.accept(uuid, service, voteMillis);
+            });
+        }
+    }
+
+    @Override
+    public void findLatestSiteVotes(UUID uuid, String playerName, long since, SiteVoteSink sink) {
+        Map<String, Long> latest = new HashMap<>();
+        collectSites(players.get(uuid), since, latest);
+        if (playerName != null && !playerName.isEmpty()) {
+            NameEntry byName = names.get(playerName.toLowerCase(Locale.ROOT));
+            if (byName != null && !byName.uuid.equals(uuid)) collectSites(players.get(byName.uuid), since, latest);
+        }
+        latest.forEach((service, voteMillis) -> sink.accept(uuid, service, voteMillis));
+    }
+
+    private static void collectSites(PlayerStats stats, long since, Map<String, Long> out) {
+        if (stats == null) return;
+        stats.sites.forEach((service, voteMillis) -> {
+            if (voteMillis >= since) out.merge(service, voteMillis, Math::max);
+        });
+    }
+
+    @Override
+    public void loadLatestSiteVotes(long since, SiteVoteSink sink) {
+        players.forEach((uuid, stats) -> {
+            if (stats.latest < since) return;
+            stats.sites.forEach((service, voteMillis) -> {
+                if (voteMillis >= since) sink.accept(uuid, service, voteMillis);
+            });
+        });
+    }
+
+    @Override
+    public UUID findUuidByName(String playerName) {
+        NameEntry entry = names.get(playerName.toLowerCase(Locale.ROOT));
+        return entry != null ? entry.uuid : null;
+    }
+
+    @Override
+    public long countVotes(UUID uuid) {
+        PlayerStats stats = players.get(uuid);
+        return stats != null ? stats.total : 0L;
+    }
+
+    /** All time from the index; shorter periods read the log once, sequentially. */
+    @Override
+    public void loadVoteCounts(long since, VoteCountSink sink) throws VoteStoreException {
+        if (since <= 0L) {
+            players.forEach((uuid, stats) -> sink.accept(uuid, stats.name, stats.total));
+            return;
+        }
+
+        ensureOpen();
+        Map<UUID, Long> counts = new HashMap<>();
+        Map<UUID, String> names = new HashMap<>();
+        try {
+            read(0L, Integer.MAX_VALUE, vote -> {
+                if (vote.voteMillis < since) return;
+                counts.merge(vote.uuid, (long) vote.count, Long::sum);
+                names.put(vote.uuid, vote.playerName);
+            });
+        } catch (IOException e) {
+            throw new VoteStoreException("Failed to read " + file.getName() + ": " + e.getMessage(), e);
+        }
+        counts.forEach((uuid, votes) -> sink.accept(uuid, names.get(uuid), votes));
+    }
+
+    @Override
+    public void findVoteTimes(UUID uuid, LongConsumer sink) {
+        PlayerStats stats = players.get(uuid);
+        if (stats == null) return;
+        for (long voteMillis : stats.copyTimes()) {
+            sink.accept(voteMillis);
+        }
+    }
+
+    @Override
+    public long countRecords() {
+        return records;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return records == 0;
+    }
+
+    @Override
+    public synchronized void wipe() throws VoteStoreException {
+        ensureOpen();
+        try {
+            channel.truncate(0);
+            channel.force(true);
+        } catch (IOException e) {
+            throw new VoteStoreException("Failed to wipe " + file.getName() + ": " + e.getMessage(), e);
+        }
+        writePosition = 0L;
+        committedSize = 0L;
+        records = 0L;
+        stored.clear();
+        players.clear();
+        names.clear();
+    }
+
+    /** The cursor is a file offset. */
+    @Override
+    public long scan(long cursor, int limit, List<StoredVote> out) throws VoteStoreException {
+        ensureOpen();
+        try {
+            return read(cursor, limit, out::add);
+        } catch (IOException e) {
+            throw new VoteStoreException("Failed to read " + file.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void ensureOpen() throws VoteStoreException {
+        if (channel == null) throw new VoteStoreException(file.getName() + " is not open");
+    }
+
+    /**
+     * Reads up to {@code limit} records starting at {@code offset}, stopping at the first
+     * incomplete or corrupt record.
+     *
+     * @return the offset right after the last record read
+     */
+    private long read(long offset, int limit, Consumer<StoredVote> sink) throws IOException {
+        long end = committedSize;
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+        buffer.flip();
+        long readPosition = offset;
+        long position = offset;
+        CRC32 crc = new CRC32();
+
+        for (int count = 0; count < limit; count++) {
+            if (buffer.remaining() < HEADER_BYTES) {
+                readPosition = fill(buffer, readPosition, end);
+                if (buffer.remaining() < HEADER_BYTES) break;
+            }
+            int payloadLength = buffer.getInt(buffer.position());
+            int expectedCrc = buffer.getInt(buffer.position() + 4);
+            if (payloadLength < FIXED_PAYLOAD_BYTES || payloadLength > MAX_PAYLOAD_BYTES) break;
+
+            if (buffer.remaining() < HEADER_BYTES + payloadLength) {
+                readPosition = fill(buffer, readPosition, end);
+                if (buffer.remaining() < HEADER_BYTES + payloadLength) break;
+            }
+
+            int payloadStart = buffer.position() + HEADER_BYTES;
+            crc.reset();
+            crc.update(buffer.array(), buffer.arrayOffset() + payloadStart, payloadLength);
+            if ((int) crc.getValue() != expectedCrc) break;
+
+            buffer.position(payloadStart);
+            long voteMillis = buffer.getLong();
+            UUID uuid = new UUID(buffer.getLong(), buffer.getLong());
+            int votes = buffer.getInt();
+            String name = readString(buffer);
+            String service = readString(buffer);
+            buffer.position(payloadStart + payloadLength);
+
+            position += HEADER_BYTES + payloadLength;
+            if (votes > 0) sink.accept(new StoredVote(uuid, name, service, voteMillis, votes));
+        }
+        return position;
+    }
+
+    private long fill(ByteBuffer buffer, long readPosition, long end) throws IOException {
+        buffer.compact();
+        while (buffer.hasRemaining() && readPosition < end) {
+            if (buffer.remaining() > end - readPosition) buffer.limit(buffer.position() + (int) (end - readPosition));
+            int read = channel.read(buffer, readPosition);
+            if (read <= 0) break;
+            readPosition += read;
+        }
+        buffer.flip();
+        return readPosition;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    /** 64-bit identity of a vote: player, service, time (and whether it is a rolled-up day). */
+    private static long key(StoredVote vote) {
+        long h = vote.uuid.getMostSignificantBits() * 0x9E3779B97F4A7C15L;
+        h = (h ^ vote.uuid.getLeastSignificantBits()) * 0xC2B2AE3D27D4EB4FL;
+        h = (h ^ vote.serviceName.hashCode()) * 0x165667B19E3779F9L;
+        h = (h ^ vote.voteMillis) * 0xD6E8FEB86659FD93L;
+        if (vote.isAggregate()) h = ~h;
+        return h ^ (h >>> 32);
+    }
+
+    private static final class PlayerStats {
+        final Map<String, Long> sites = new ConcurrentHashMap<>(4);
+        volatile String name;
+        private long[] times = new long[4];
+        private int timeCount;
+
+        synchronized void addTime(long voteMillis) {
+            if (timeCount == times.length) times = Arrays.copyOf(times, timeCount * 2);
+            times[timeCount++] = voteMillis;
+        }
+
+        synchronized long[] copyTimes() {
+            return Arrays.copyOf(times, timeCount);
+        }
+        volatile long latest;
+        volatile long total;
+    }
+
+    private static final class NameEntry {
+        final UUID uuid;
+        final long voteMillis;
+
+        NameEntry(UUID uuid, long voteMillis) {
+            this.uuid = uuid;
+            this.voteMillis = voteMillis;
+        }
+    }
+
+    /** Open-addressing set of longs; 0 is stored as a flag instead of in the table. */
+    private static final class LongHashSet {
+        private long[] table = new long[64];
+        private int size;
+        private boolean hasZero;
+
+        boolean contains(long value) {
+            if (value == 0L) return hasZero;
+            int mask = table.length - 1;
+            int slot = (int) value & mask;
+            while (table[slot] != 0L) {
+                if (table[slot] == value) return true;
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        }
+
+        boolean add(long value) {
+            if (value == 0L) {
+                if (hasZero) return false;
+                hasZero = true;
+                return true;
+            }
+            if ((size + 1) * 2 > table.length) resize();
+            int mask = table.length - 1;
+            int slot = (int) value & mask;
+            while (table[slot] != 0L) {
+                if (table[slot] == value) return false;
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = value;
+            size++;
+            return true;
+        }
+
+        void clear() {
+            table = new long[64];
+            size = 0;
+            hasZero = false;
+        }
+
+        private void resize() {
+            long[] old = table;
+            table = new long[old.length * 2];
+            int mask = table.length - 1;
+            for (long value : old) {
+                if (value == 0L) continue;
+                int slot = (int) value & mask;
+                while (table[slot] != 0L) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package dev.padrewin.votechecker.database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+/** MySQL / MariaDB, possibly shared by several servers. */
+public class MySqlVoteStore extends JdbcVoteStore {
+
+    private final String url;
+    private final String database;
+    private final String user;
+    private final String password;
+
+    public MySqlVoteStore(Logger logger, String host, int port, String database, String user, String password,
+                          boolean ssl, String tablePrefix, int readConnections) {
+        super(logger, tablePrefix, readConnections);
+        // No autoReconnect: the pool drops dead connections and the circuit breaker backs off.
+        // The timeouts make a stalled link fail instead of blocking a reader thread forever.
+        this.url = "jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=" + ssl +
+                "&rewriteBatchedStatements=true&connectTimeout=5000&socketTimeout=60000";
+        this.database = database;
+        this.user = user;
+        this.password = password;
+    }
+
+    @Override
+    protected Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(url, user, password);
+    }
+
+    @Override
+    protected boolean isMySQL() {
+        return true;
+    }
+
+    @Override
+    public StorageType getType() {
+        return StorageType.MYSQL;
+    }
+
+    @Override
+    public String getDescription() {
+        return "MySQL database (" + database + ") with " + super.getDescription();
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+}
@@ -0,0 +1,364 @@
+package dev.padrewin.votechecker.database;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * Versioned schema for the votes table.
+ * Every step is applied once and recorded in the schema_version table;
+ * steps are written so that re-running a half applied step is harmless.
+ */
+public class SchemaMigrator {
+
+    public static final int LATEST_VERSION = 5;
+
+    private final Logger logger;
+    private final boolean isMySQL;
+    private final String table;
+    private final String versionTable;
+    private final String dailyTable;
+
+    public SchemaMigrator(Logger logger, boolean isMySQL, String tablePrefix) {
+        this.logger = logger;
+        this.isMySQL = isMySQL;
+        this.table = tablePrefix + "votes";
+        this.versionTable = tablePrefix + "schema_version";
+        this.dailyTable = tablePrefix + "votes_daily";
+    }
+
+    public String getDailyTableName() {
+        return dailyTable;
+    }
+
+    /** Brings the schema on this connection up to {@link #LATEST_VERSION}. */
+    public void migrate(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + versionTable + " (version INT NOT NULL)");
+        }
+
+        int version = getVersion(connection);
+        for (int next = version + 1; next <= LATEST_VERSION; next++) {
+            applyStep(connection, next);
+            try (PreparedStatement stmt = connection.prepareStatement("INSERT INTO " + versionTable + " (version) VALUES (?)")) {
+                stmt.setInt(1, next);
+                stmt.executeUpdate();
+            }
+            if (version > 0) {
+                logger.info("Upgraded table '" + table + "' to schema version " + next + " ✅");
+            }
+        }
+
+        ensureIndexes(connection);
+    }
+
+    /**
+     * Creates any lookup index that is missing, e.g. on databases created by older
+     * versions or where an index was dropped by hand. Runs on every startup.
+     */
+    public void ensureIndexes(Connection connection) throws SQLException {
+        createIndex(connection, "idx_" + table + "_epoch", "vote_epoch");
+        createIndex(connection, "idx_" + table + "_uuid_epoch", "player_uuid, vote_epoch");
+        createIndex(connection, "idx_" + table + "_name_epoch", "player_name_lower, vote_epoch");
+    }
+
+    private int getVersion(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM " + versionTable)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private void applyStep(Connection connection, int version) throws SQLException {
+        switch (version) {
+            case 1:
+                createBaseTable(connection);
+                break;
+            case 2:
+                // Epoch millis (UTC) next to the legacy ISO string, filled in by backfillEpochChunk.
+                if (!hasColumn(connection, "vote_epoch")) {
+                    execute(connection, "ALTER TABLE " + table + " ADD COLUMN vote_epoch BIGINT NULL");
+                }
+                break;
+            case 3:
+                // Lowercased name, so name lookups can seek an index instead of calling LOWER() per row.
+                if (!hasColumn(connection, "player_name_lower")) {
+                    execute(connection, "ALTER TABLE " + table + " ADD COLUMN player_name_lower VARCHAR(64) NULL");
+                }
+                break;
+            case 4:
+                // One row per (player, service, time), so journal replays can insert idempotently.
+                // Rows still waiting for their epoch are de-duplicated by the backfill instead.
+                removeDuplicateVotes(connection);
+                if (!hasIndex(connection, uniqueIndexName())) {
+                    logger.info("Creating unique index '" + uniqueIndexName() + "' on '" + table + "'...");
+                    execute(connection, "CREATE UNIQUE INDEX " + uniqueIndexName() + " ON " + table +
+                            " (player_uuid, service_name, vote_epoch)");
+                }
+                break;
+            case 5:
+                // Per-player, per-service, per-day totals of compacted (deleted) raw rows. Days are UTC epoch days.
+                execute(connection, "CREATE TABLE IF NOT EXISTS " + dailyTable + " (" +
+                        "player_uuid VARCHAR(36) NOT NULL," +
+                        "player_name VARCHAR(64) NOT NULL," +
+                        "service_name VARCHAR(128) NOT NULL," +
+                        "vote_day INT NOT NULL," +
+                        "vote_count INT NOT NULL," +
+                        "last_vote_epoch BIGINT NOT NULL," +
+                        "PRIMARY KEY (player_uuid, service_name, vote_day))");
+                break;
+            default:
+                throw new SQLException("Unknown schema version " + version);
+        }
+    }
+
+    private String uniqueIndexName() {
+        return "uq_" + table + "_vote";
+    }
+
+    private void removeDuplicateVotes(Connection connection) throws SQLException {
+        String sql = isMySQL
+                ? "DELETE a FROM " + table + " a JOIN " + table + " b ON a.player_uuid = b.player_uuid" +
+                  " AND a.service_name = b.service_name AND a.vote_epoch = b.vote_epoch AND a.id > b.id"
+                : "DELETE FROM " + table + " WHERE vote_epoch IS NOT NULL AND EXISTS (SELECT 1 FROM " + table + " b" +
+                  " WHERE b.player_uuid = " + table + ".player_uuid AND b.service_name = " + table + ".service_name" +
+                  " AND b.vote_epoch = " + table + ".vote_epoch AND b.id < " + table + ".id)";
+        try (Statement stmt = connection.createStatement()) {
+            int removed = stmt.executeUpdate(sql);
+            if (removed > 0) {
+                logger.info("Removed " + removed + " duplicate vote row(s) from '" + table + "'.");
+            }
+        }
+    }
+
+    private void createBaseTable(Connection connection) throws SQLException {
+        String idColumn = isMySQL
+                ? "id INT AUTO_INCREMENT PRIMARY KEY"
+                : "id INTEGER PRIMARY KEY AUTOINCREMENT";
+
+        execute(connection, "CREATE TABLE IF NOT EXISTS " + table + " (" +
+                idColumn + "," +
+                "player_uuid VARCHAR(36) NOT NULL," +
+                "player_name VARCHAR(64) NOT NULL," +
+                "service_name VARCHAR(128) NOT NULL," +
+                "vote_time VARCHAR(64) NOT NULL" +
+                (isMySQL ? ", INDEX (player_uuid), INDEX (player_name)" : "") +
+                ");");
+    }
+
+    /**
+     * Converts one chunk of legacy rows (newest first) to epoch millis.
+     * The legacy strings were written with LocalDateTime.now(), so they are read in the JVM zone.
+     * A row that would duplicate an existing (player, service, time) row is left unconverted by
+     * the unique index and deleted in the same transaction; this includes repeated unreadable rows.
+     *
+     * @return how many rows were converted, 0 once nothing is left
+     */
+    public int backfillEpochChunk(Connection connection, int chunkSize) throws SQLException {
+        List<long[]> updates = selectLegacyEpochs(connection, chunkSize);
+        applyEpochs(connection, updates);
+        return updates.size();
+    }
+
+    /**
+     * Fills player_name_lower for one chunk of legacy rows (newest first).
+     *
+     * @return how many rows were updated, 0 once nothing is left
+     */
+    public int backfillNameChunk(Connection connection, int chunkSize) throws SQLException {
+        List<Object[]> updates = selectLegacyNames(connection, chunkSize);
+        applyNames(connection, updates);
+        return updates.size();
+    }
+
+    /**
+     * Converts the newest legacy rows, chunk by chunk, until a chunk reaches rows older than
+     * {@code sinceMillis}. Legacy rows were appended in time order, so afterwards every legacy
+     * row at or after {@code sinceMillis} is visible to the indexed lookups; the older ones are
+     * left to the chunked backfill.
+     *
+     * @return how many row updates were made
+     */
+    public int backfillRecent(Connection connection, int chunkSize, long sinceMillis) throws SQLException {
+        int converted = 0;
+        boolean reached = false;
+        while (!reached) {
+            List<long[]> updates = selectLegacyEpochs(connection, chunkSize);
+            if (updates.isEmpty()) break;
+            applyEpochs(connection, updates);
+            converted += updates.size();
+            for (long[] row : updates) {
+                // Unreadable rows (0) say nothing about where the window starts.
+                if (row[1] > 0 && row[1] < sinceMillis) reached = true;
+            }
+        }
+
+        reached = false;
+        while (!reached) {
+            List<Object[]> updates = selectLegacyNames(connection, chunkSize);
+            if (updates.isEmpty()) break;
+            applyNames(connection, updates);
+            converted += updates.size();
+            for (Object[] row : updates) {
+                // Epochs are filled newest first, so a row still without one (0) is older than the window too.
+                if ((Long) row[2] < sinceMillis) reached = true;
+            }
+        }
+        return converted;
+    }
+
+    private List<long[]> selectLegacyEpochs(Connection connection, int chunkSize) throws SQLException {
+        List<long[]> updates = new ArrayList<>(chunkSize);
+        ZoneId zone = ZoneId.systemDefault();
+
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, vote_time FROM " + table + " WHERE vote_epoch IS NULL ORDER BY id DESC LIMIT ?")) {
+            select.setInt(1, chunkSize);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    updates.add(new long[]{rs.getLong(1), parseLegacyTime(rs.getString(2), zone)});
+                }
+            }
+        }
+        return updates;
+    }
+
+    private void applyEpochs(Connection connection, List<long[]> updates) throws SQLException {
+        if (updates.isEmpty()) return;
+
+        connection.setAutoCommit(false);
+        try (PreparedStatement update = connection.prepareStatement(
+                (isMySQL ? "UPDATE IGNORE " : "UPDATE OR IGNORE ") + table + " SET vote_epoch = ? WHERE id = ?");
+             PreparedStatement dropDuplicate = connection.prepareStatement(
+                "DELETE FROM " + table + " WHERE id = ? AND vote_epoch IS NULL")) {
+            for (long[] row : updates) {
+                update.setLong(1, row[1]);
+                update.setLong(2, row[0]);
+                update.addBatch();
+                dropDuplicate.setLong(1, row[0]);
+                dropDuplicate.addBatch();
+            }
+            update.executeBatch();
+            dropDuplicate.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /** Rows as {id, lowercased name, vote_epoch or 0}. */
+    private List<Object[]> selectLegacyNames(Connection connection, int chunkSize) throws SQLException {
+        List<Object[]> updates = new ArrayList<>(chunkSize);
+
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, player_name, vote_epoch FROM " + table + " WHERE player_name_lower IS NULL ORDER BY id DESC LIMIT ?")) {
+            select.setInt(1, chunkSize);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    updates.add(new Object[]{rs.getLong(1), normalizeName(rs.getString(2)), rs.getLong(3)});
+                }
+            }
+        }
+        return updates;
+    }
+
+    private void applyNames(Connection connection, List<Object[]> updates) throws SQLException {
+        if (updates.isEmpty()) return;
+
+        connection.setAutoCommit(false);
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE " + table + " SET player_name_lower = ? WHERE id = ?")) {
+            for (Object[] row : updates) {
+                update.setString(1, (String) row[1]);
+                update.setLong(2, (Long) row[0]);
+                update.addBatch();
+            }
+            update.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    public long countPendingBackfill(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table +
+                     " WHERE vote_epoch IS NULL OR player_name_lower IS NULL")) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    /** Legacy ISO_LOCAL_DATE_TIME string to epoch millis; unreadable values become 0 so they are not retried forever. */
+    public static long parseLegacyTime(String raw, ZoneId zone) {
+        try {
+            return LocalDateTime.parse(raw.trim()).atZone(zone).toInstant().toEpochMilli();
+        } catch (Exception e) {
+            return 0L;
+        }
+    }
+
+    /** Insert that silently skips rows already present under the unique vote key. */
+    public static String insertIgnore(boolean isMySQL) {
+        return isMySQL ? "INSERT IGNORE INTO" : "INSERT OR IGNORE INTO";
+    }
+
+    /** Value stored in player_name_lower. */
+    public static String normalizeName(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT);
+    }
+
+    /** Legacy vote_time value for a new row, kept so older plugin versions can still read the table. */
+    public static String formatLegacyTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()).toString();
+    }
+
+    private boolean hasColumn(Connection connection, String column) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+        try (ResultSet rs = meta.getColumns(connection.getCatalog(), null, table, column)) {
+            return rs.next();
+        }
+    }
+
+    private boolean hasIndex(Connection connection, String index) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+        try (ResultSet rs = meta.getIndexInfo(connection.getCatalog(), null, table, false, false)) {
+            while (rs.next()) {
+                if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) return true;
+            }
+        }
+        return false;
+    }
+
+    private void createIndex(Connection connection, String index, String columns) throws SQLException {
+        if (hasIndex(connection, index)) return;
+
+        logger.info("Creating missing index '" + index + "' on '" + table + "' (" + columns + ")...");
+        if (isMySQL) {
+            execute(connection, "CREATE INDEX " + index + " ON " + table + " (" + columns + ")");
+        } else {
+            execute(connection, "CREATE INDEX IF NOT EXISTS " + index + " ON " + table + " (" + columns + ")");
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package dev.padrewin.votechecker.database;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Logger;
+
+/** Local SQLite file, WAL mode so readers do not block the writer. */
+public class SqliteVoteStore extends JdbcVoteStore {
+
+    private final File file;
+
+    public SqliteVoteStore(Logger logger, File file, int readConnections) {
+        super(logger, "", readConnections);
+        this.file = file;
+    }
+
+    @Override
+    protected Connection openConnection() throws SQLException {
+        File folder = file.getParentFile();
+        if (folder != null && !folder.exists()) folder.mkdirs();
+
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA journal_mode=WAL");
+            stmt.execute("PRAGMA busy_timeout=5000");
+        }
+        return connection;
+    }
+
+    @Override
+    protected boolean isMySQL() {
+        return false;
+    }
+
+    @Override
+    public StorageType getType() {
+        return StorageType.SQLITE;
+    }
+
+    @Override
+    public String getDescription() {
+        return "SQLite database (" + file.getName() + ") with " + super.getDescription();
+    }
+}
@@ -0,0 +1,30 @@
+package dev.padrewin.votechecker.database;
+
+import java.util.Locale;
+
+/** Storage backends selectable with {@code database.type}. */
+public enum StorageType {
+
+    SQLITE,
+    MYSQL,
+    /** Embedded append-only log with an in-memory per-player index, no SQL involved. */
+    LOCAL;
+
+    /**
+     * Parses a configured or typed name; unknown values fall back to {@link #SQLITE}.
+     */
+    public static StorageType fromName(String name) {
+        StorageType type = fromNameOrNull(name);
+        return type != null ? type : SQLITE;
+    }
+
+    /** Same as {@link #fromName}, but null for unknown values. */
+    public static StorageType fromNameOrNull(String name) {
+        if (name == null) return null;
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
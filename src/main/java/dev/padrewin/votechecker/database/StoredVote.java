@@ -0,0 +1,36 @@
+package dev.padrewin.votechecker.database;
+
+import java.util.UUID;
+
+/**
+ * One vote as handed to and read from a {@link VoteStore}.
+ * Rolled-up history (see {@link VoteCompactor}) is exported as one record per player,
+ * service and day, with {@link #count} holding the number of votes of that day.
+ */
+public final class StoredVote {
+
+    public final UUID uuid;
+    public final String playerName;
+    public final String serviceName;
+    public final long voteMillis;
+    public final int count;
+
+    public StoredVote(UUID uuid, String playerName, String serviceName, long voteMillis) {
+        this(uuid, playerName, serviceName, voteMillis, 1);
+    }
+
+    public StoredVote(UUID uuid, String playerName, String serviceName, long voteMillis, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("vote count must be at least 1, was " + count);
+        }
+        this.uuid = uuid;
+        this.playerName = playerName;
+        this.serviceName = serviceName;
+        this.voteMillis = voteMillis;
+        this.count = count;
+    }
+
+    public boolean isAggregate() {
+        return count > 1;
+    }
+}
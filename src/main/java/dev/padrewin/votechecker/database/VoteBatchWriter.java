@@ -0,0 +1,372 @@
+package dev.padrewin.votechecker.database;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Group-commit pipeline for incoming votes.
+ * Votes are queued in memory and written as one JDBC batch inside a single
+ * transaction, as soon as either the batch is full or the oldest queued vote
+ * has waited for the configured delay.
+ * All flushes run on the (single threaded) write lane, so order is kept.
+ * <p>
+ * Every vote is appended to the {@link VoteJournal} before it is queued. When a batch fails,
+ * or the in-memory queue is full, the writer switches to replay mode: the queue is dropped
+ * and votes are read back from the journal, in order, until it is drained. Inserts are
+ * idempotent (unique key on uuid, service and time), so replaying a vote twice is harmless.
+ */
+public class VoteBatchWriter {
+
+    /** Where batches go: the active {@link VoteStore}. */
+    @FunctionalInterface
+    public interface Target {
+        void insert(List<StoredVote> votes) throws VoteStoreException;
+    }
+
+    private static final long MIN_RETRY_DELAY_MS = 1_000L;
+    private static final long MAX_RETRY_DELAY_MS = 30_000L;
+
+    private enum ReplayResult { DRAINED, PROGRESS, FAILED }
+
+    private final Logger logger;
+    private final ScheduledExecutorService writeLane;
+    private final Target target;
+    private final IntSupplier maxBatchSize;
+    private final LongSupplier maxDelayMs;
+    private final IntSupplier maxQueued;
+    private final VoteJournal journal;
+
+    private final ConcurrentLinkedQueue<PendingVote> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicBoolean timedFlushScheduled = new AtomicBoolean();
+    private final AtomicBoolean fullFlushScheduled = new AtomicBoolean();
+    private final AtomicBoolean replayScheduled = new AtomicBoolean();
+
+    // Replay mode; flipped while holding the journal lock so no vote falls between queue and journal.
+    private volatile boolean replaying;
+    private long retryDelayMs; // write lane only
+
+    // Stats
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile int largestBatchSize;
+    private volatile long lastFlushNanos;
+
+    public VoteBatchWriter(Logger logger, ScheduledExecutorService writeLane, Target target, VoteJournal journal,
+                           IntSupplier maxBatchSize, LongSupplier maxDelayMs, IntSupplier maxQueued) {
+        this.logger = logger;
+        this.writeLane = writeLane;
+        this.target = target;
+        this.journal = journal;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayMs = maxDelayMs;
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * Journals the vote and queues it for the next batch. Never waits for the database.
+     * {@code uuid} is null when the player is not known yet; the target resolves it before storing.
+     */
+    public void submit(UUID uuid, String playerName, String serviceName, long voteMillis) {
+        int size;
+        synchronized (journal) {
+            VoteJournal.Entry entry;
+            try {
+                entry = journal.append(uuid, playerName, serviceName, voteMillis);
+            } catch (IOException e) {
+                logger.severe("Failed to journal vote of " + playerName + ", it is only kept in memory: " + e.getMessage());
+                entry = new VoteJournal.Entry(0L, 0L, uuid, playerName, serviceName, voteMillis);
+            }
+
+            boolean journaled = entry.seq > 0;
+            if (journaled && (replaying || depth.get() >= Math.max(batchSize(), maxQueued.getAsInt()))) {
+                // Safe in the journal; the replay picks it up from there.
+                if (!replaying) {
+                    logger.warning("Vote queue is full (" + depth.get() + " pending), continuing from the journal.");
+                    replaying = true;
+                }
+                scheduleReplay(0L);
+                return;
+            }
+
+            queue.add(new PendingVote(entry));
+            size = depth.incrementAndGet();
+        }
+
+        if (size >= batchSize()) {
+            if (fullFlushScheduled.compareAndSet(false, true)) {
+                writeLane.execute(() -> {
+                    fullFlushScheduled.set(false);
+                    flushFullBatches();
+                });
+            }
+        } else if (timedFlushScheduled.compareAndSet(false, true)) {
+            writeLane.schedule(() -> {
+                timedFlushScheduled.set(false);
+                flushAll();
+            }, Math.max(1L, maxDelayMs.getAsLong()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private int batchSize() {
+        return Math.max(1, maxBatchSize.getAsInt());
+    }
+
+    /** Writes full batches only; the remainder waits for the timed flush. Write lane only. */
+    private void flushFullBatches() {
+        int size = batchSize();
+        while (depth.get() >= size) {
+            if (!flushBatch(size)) break;
+        }
+        if (!replaying && depth.get() > 0 && timedFlushScheduled.compareAndSet(false, true)) {
+            writeLane.schedule(() -> {
+                timedFlushScheduled.set(false);
+                flushAll();
+            }, Math.max(1L, maxDelayMs.getAsLong()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Writes everything that is queued right now. Must run on the write lane. */
+    public void flushAll() {
+        flushUntil(Long.MAX_VALUE);
+    }
+
+    /**
+     * Writes what is queued or journaled until {@code deadlineNanos} (System.nanoTime) passes
+     * or the database fails. Whatever is left stays in the journal. Must run on the write lane.
+     *
+     * @return true when nothing is left to write
+     */
+    public boolean flushUntil(long deadlineNanos) {
+        int size = batchSize();
+        while (!replaying && depth.get() > 0) {
+            if (!flushBatch(size)) break;
+            if (System.nanoTime() - deadlineNanos > 0) return false;
+        }
+        while (replaying) {
+            ReplayResult result = replayBatch();
+            if (result == ReplayResult.FAILED) return false;
+            if (result == ReplayResult.PROGRESS && System.nanoTime() - deadlineNanos > 0) return false;
+        }
+        return depth.get() == 0;
+    }
+
+    /**
+     * Starts replaying the journal, e.g. with records left over from the last run.
+     */
+    public void startReplay() {
+        synchronized (journal) {
+            replaying = true;
+        }
+        scheduleReplay(0L);
+    }
+
+    private void scheduleReplay(long delayMs) {
+        if (!replayScheduled.compareAndSet(false, true)) return;
+        writeLane.schedule(() -> {
+            replayScheduled.set(false);
+            runReplay();
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Write lane: replays journal batches, backing off while the database is unavailable. */
+    private void runReplay() {
+        if (!replaying) return;
+        ReplayResult result = replayBatch();
+        if (result == ReplayResult.PROGRESS) {
+            retryDelayMs = 0L;
+            writeLane.execute(this::runReplay);
+        } else if (result == ReplayResult.FAILED) {
+            retryDelayMs = retryDelayMs == 0L ? MIN_RETRY_DELAY_MS : Math.min(MAX_RETRY_DELAY_MS, retryDelayMs * 2);
+            scheduleReplay(retryDelayMs);
+        } else {
+            retryDelayMs = 0L;
+            flushAll(); // votes that could not be journaled
+        }
+    }
+
+    private ReplayResult replayBatch() {
+        if (depth.get() > 0) {
+            dropJournaledQueue();
+        }
+
+        VoteJournal.Batch batch;
+        try {
+            synchronized (journal) {
+                // Each replayed batch is acknowledged before the next read, so reading resumes there.
+                batch = journal.read(journal.getAcknowledgedOffset(), batchSize());
+                if (batch.records.isEmpty()) {
+                    replaying = false;
+                    logger.info("Vote journal drained, " + replayed.get() + " vote(s) replayed so far ✅");
+                    return ReplayResult.DRAINED;
+                }
+            }
+        } catch (IOException e) {
+            logger.severe("Failed to read the vote journal: " + e.getMessage());
+            return ReplayResult.FAILED;
+        }
+
+        List<PendingVote> votes = new ArrayList<>(batch.records.size());
+        for (VoteJournal.Entry entry : batch.records) {
+            votes.add(new PendingVote(entry));
+        }
+
+        long start = System.nanoTime();
+        try {
+            write(votes);
+        } catch (VoteStoreException e) {
+            if (retryDelayMs == 0L) {
+                logger.severe("Failed to write journaled votes, will keep retrying: " + e.getMessage());
+            }
+            return ReplayResult.FAILED;
+        }
+        recordBatch(votes.size(), start);
+        replayed.addAndGet(votes.size());
+
+        acknowledge(votes);
+        return ReplayResult.PROGRESS;
+    }
+
+    /**
+     * Entering replay: queued votes are in the journal already and will be replayed from there.
+     * Votes that could not be journaled stay queued.
+     */
+    private void dropJournaledQueue() {
+        List<PendingVote> keep = new ArrayList<>();
+        PendingVote vote;
+        while ((vote = queue.poll()) != null) {
+            depth.decrementAndGet();
+            if (vote.seq <= 0) keep.add(vote);
+        }
+        for (PendingVote pending : keep) {
+            queue.add(pending);
+            depth.incrementAndGet();
+        }
+    }
+
+    private void acknowledge(List<PendingVote> votes) {
+        for (int i = votes.size() - 1; i >= 0; i--) {
+            PendingVote last = votes.get(i);
+            if (last.seq <= 0) continue;
+            try {
+                journal.acknowledge(last.seq, last.journalEnd);
+            } catch (IOException e) {
+                logger.warning("Failed to truncate the vote journal: " + e.getMessage());
+            }
+            return;
+        }
+    }
+
+    private boolean flushBatch(int size) {
+        // While replaying, queued votes must not be acknowledged ahead of older journaled ones.
+        if (replaying) return false;
+
+        List<PendingVote> batch = new ArrayList<>(Math.min(size, depth.get()));
+        PendingVote vote;
+        while (batch.size() < size && (vote = queue.poll()) != null) {
+            depth.decrementAndGet();
+            batch.add(vote);
+        }
+        if (batch.isEmpty()) return false;
+
+        long start = System.nanoTime();
+        try {
+            write(batch);
+            recordBatch(batch.size(), start);
+            acknowledge(batch);
+            return true;
+        } catch (VoteStoreException e) {
+            failed.addAndGet(batch.size());
+            logger.severe("Failed to insert a batch of " + batch.size() + " vote(s), retrying from the journal: " + e.getMessage());
+            synchronized (journal) {
+                replaying = true;
+            }
+            for (PendingVote lost : batch) {
+                if (lost.seq <= 0) logger.severe("Lost vote of " + lost.vote.playerName + " (" + lost.vote.serviceName + "), it was not journaled.");
+            }
+            scheduleReplay(MIN_RETRY_DELAY_MS);
+            return false;
+        }
+    }
+
+    private void recordBatch(int size, long startNanos) {
+        batches.incrementAndGet();
+        written.addAndGet(size);
+        lastBatchSize = size;
+        if (size > largestBatchSize) largestBatchSize = size;
+        lastFlushNanos = System.nanoTime() - startNanos;
+    }
+
+    private void write(List<PendingVote> batch) throws VoteStoreException {
+        List<StoredVote> votes = new ArrayList<>(batch.size());
+        for (PendingVote pending : batch) {
+            votes.add(pending.vote);
+        }
+        target.insert(votes);
+    }
+
+    public Stats getStats() {
+        long batchCount = batches.get();
+        long votes = written.get();
+        return new Stats(depth.get(), batchCount, votes, failed.get(), lastBatchSize, largestBatchSize,
+                batchCount == 0 ? 0D : (double) votes / batchCount, lastFlushNanos / 1_000_000D,
+                replaying, replayed.get(), journal.getPendingBytes());
+    }
+
+    private static final class PendingVote {
+        final long seq; // 0 when the vote could not be journaled
+        final long journalEnd;
+        final StoredVote vote;
+
+        PendingVote(VoteJournal.Entry entry) {
+            this.seq = entry.seq;
+            this.journalEnd = entry.endOffset;
+            this.vote = new StoredVote(entry.uuid, entry.playerName, entry.serviceName, entry.voteMillis);
+        }
+    }
+
+    /** Point-in-time view of the pipeline, for tuning the batch settings. */
+    public static final class Stats {
+        public final int queueDepth;
+        public final long batches;
+        public final long votesWritten;
+        public final long votesFailed;
+        public final int lastBatchSize;
+        public final int largestBatchSize;
+        public final double averageBatchSize;
+        public final double lastFlushMillis;
+        public final boolean replaying;
+        public final long votesReplayed;
+        public final long journalBytes;
+
+        Stats(int queueDepth, long batches, long votesWritten, long votesFailed, int lastBatchSize,
+              int largestBatchSize, double averageBatchSize, double lastFlushMillis,
+              boolean replaying, long votesReplayed, long journalBytes) {
+            this.queueDepth = queueDepth;
+            this.batches = batches;
+            this.votesWritten = votesWritten;
+            this.votesFailed = votesFailed;
+            this.lastBatchSize = lastBatchSize;
+            this.largestBatchSize = largestBatchSize;
+            this.averageBatchSize = averageBatchSize;
+            this.lastFlushMillis = lastFlushMillis;
+            this.replaying = replaying;
+            this.votesReplayed = votesReplayed;
+            this.journalBytes = journalBytes;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package dev.padrewin.votechecker.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rolls old raw vote rows up into the daily aggregate table and deletes them.
+ * Each chunk is one short transaction (select oldest rows, upsert their daily
+ * totals, delete them), so a run never holds long locks on a live table.
+ */
+public class VoteCompactor {
+
+    public static final long DAY_MILLIS = 86_400_000L;
+
+    private static final Pattern VERSION = Pattern.compile("^(\\d+)\\.(\\d+)\\.(\\d+)");
+
+    private final boolean isMySQL;
+    private final String table;
+    private final String dailyTable;
+    private String upsertSql; // built on first use, once the server version is known
+
+    public VoteCompactor(boolean isMySQL, String table, String dailyTable) {
+        this.isMySQL = isMySQL;
+        this.table = table;
+        this.dailyTable = dailyTable;
+    }
+
+    /**
+     * Compacts up to {@code chunkSize} of the oldest rows with a vote time before {@code cutoffMillis}.
+     *
+     * @return how many raw rows were rolled up, 0 once nothing is left
+     */
+    public int compactChunk(Connection connection, long cutoffMillis, int chunkSize) throws SQLException {
+        List<Long> ids = new ArrayList<>(chunkSize);
+        Map<DayKey, DayTotal> totals = new LinkedHashMap<>();
+
+        connection.setAutoCommit(false);
+        try {
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT id, player_uuid, player_name, service_name, vote_epoch FROM " + table +
+                            " WHERE vote_epoch IS NOT NULL AND vote_epoch < ? ORDER BY vote_epoch LIMIT ?")) {
+                select.setLong(1, cutoffMillis);
+                select.setInt(2, chunkSize);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getLong(1));
+                        long epoch = rs.getLong(5);
+                        DayKey key = new DayKey(rs.getString(2), rs.getString(4), Math.floorDiv(epoch, DAY_MILLIS));
+                        totals.computeIfAbsent(key, k -> new DayTotal()).add(rs.getString(3), epoch);
+                    }
+                }
+            }
+            if (ids.isEmpty()) {
+                connection.commit();
+                return 0;
+            }
+
+            if (upsertSql == null) upsertSql = upsertSql(connection);
+            try (PreparedStatement upsert = connection.prepareStatement(upsertSql)) {
+                for (Map.Entry<DayKey, DayTotal> entry : totals.entrySet()) {
+                    DayKey key = entry.getKey();
+                    DayTotal total = entry.getValue();
+                    upsert.setString(1, key.uuid);
+                    upsert.setString(2, total.name);
+                    upsert.setString(3, key.service);
+                    upsert.setLong(4, key.day);
+                    upsert.setInt(5, total.count);
+                    upsert.setLong(6, total.lastEpoch);
+                    upsert.addBatch();
+                }
+                upsert.executeBatch();
+            }
+
+            try (PreparedStatement delete = connection.prepareStatement("DELETE FROM " + table + " WHERE id = ?")) {
+                for (long id : ids) {
+                    delete.setLong(1, id);
+                    delete.addBatch();
+                }
+                delete.executeBatch();
+            }
+
+            connection.commit();
+            return ids.size();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private String upsertSql(Connection connection) throws SQLException {
+        String insert = "INSERT INTO " + dailyTable +
+                " (player_uuid, player_name, service_name, vote_day, vote_count, last_vote_epoch) VALUES (?, ?, ?, ?, ?, ?)";
+        if (isMySQL && supportsRowAlias(connection.getMetaData().getDatabaseProductVersion())) {
+            // player_name first: MySQL evaluates the assignments left to right.
+            return insert + " AS new ON DUPLICATE KEY UPDATE" +
+                    " player_name = IF(new.last_vote_epoch >= last_vote_epoch, new.player_name, player_name)," +
+                    " vote_count = vote_count + new.vote_count," +
+                    " last_vote_epoch = GREATEST(last_vote_epoch, new.last_vote_epoch)";
+        }
+        if (isMySQL) {
+            // VALUES() is deprecated since MySQL 8.0.20, but older servers and MariaDB only know this form.
+            return insert + " ON DUPLICATE KEY UPDATE" +
+                    " player_name = IF(VALUES(last_vote_epoch) >= last_vote_epoch, VALUES(player_name), player_name)," +
+                    " vote_count = vote_count + VALUES(vote_count)," +
+                    " last_vote_epoch = GREATEST(last_vote_epoch, VALUES(last_vote_epoch))";
+        }
+        return insert + " ON CONFLICT (player_uuid, service_name, vote_day) DO UPDATE SET" +
+                " player_name = CASE WHEN excluded.last_vote_epoch >= last_vote_epoch THEN excluded.player_name ELSE player_name END," +
+                " vote_count = vote_count + excluded.vote_count," +
+                " last_vote_epoch = MAX(last_vote_epoch, excluded.last_vote_epoch)";
+    }
+
+    /**
+     * Row aliases in {@code INSERT ... AS new} exist since MySQL 8.0.19; MariaDB (which reports
+     * versions like "5.5.5-10.11.6-MariaDB") does not support them.
+     */
+    static boolean supportsRowAlias(String version) {
+        if (version == null || version.toLowerCase(Locale.ROOT).contains("mariadb")) return false;
+        Matcher matcher = VERSION.matcher(version);
+        if (!matcher.find()) return false;
+        int major = Integer.parseInt(matcher.group(1));
+        int minor = Integer.parseInt(matcher.group(2));
+        int patch = Integer.parseInt(matcher.group(3));
+        if (major != 8) return major > 8;
+        return minor > 0 || patch >= 19;
+    }
+
+    private static final class DayKey {
+        final String uuid;
+        final String service;
+        final long day;
+
+        DayKey(String uuid, String service, long day) {
+            this.uuid = uuid;
+            this.service = service;
+            this.day = day;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof DayKey)) return false;
+            DayKey other = (DayKey) o;
+            return day == other.day && uuid.equals(other.uuid) && service.equals(other.service);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(uuid, service, day);
+        }
+    }
+
+    private static final class DayTotal {
+        String name;
+        int count;
+        long lastEpoch = Long.MIN_VALUE;
+
+        void add(String playerName, long epoch) {
+            count++;
+            if (epoch >= lastEpoch) {
+                lastEpoch = epoch;
+                name = playerName;
+            }
+        }
+    }
+}
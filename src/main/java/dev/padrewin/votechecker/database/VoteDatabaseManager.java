@@ -1,341 +1,1171 @@
 package dev.padrewin.votechecker.database;
 
 import dev.padrewin.votechecker.VoteChecker;
+import dev.padrewin.votechecker.cache.LastVoteIndex;
+import dev.padrewin.votechecker.cache.NameResolver;
+import dev.padrewin.votechecker.cache.SiteVoteIndex;
+import dev.padrewin.votechecker.cache.VoteCheckCoalescer;
+import dev.padrewin.votechecker.cache.VoteLeaderboard;
+import dev.padrewin.votechecker.cache.VoteLeaderboards;
+import dev.padrewin.votechecker.cache.VoteStreaks;
 import dev.padrewin.votechecker.setting.SettingKey;
+import dev.padrewin.votechecker.window.LeaderboardPeriod;
+import dev.padrewin.votechecker.window.RollingWindow;
+import dev.padrewin.votechecker.window.VoteWindow;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.io.File;
-import java.sql.*;
+import java.io.IOException;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 public class VoteDatabaseManager {
 
+    private static final int BACKFILL_CHUNK_SIZE = 500;
+    private static final long BACKFILL_PAUSE_MS = 25L;
+    private static final long SYNC_OVERLAP_MS = 60_000L;
+    private static final long SHUTDOWN_FLUSH_SECONDS = 5L;
+    private static final int COMPACTION_CHUNK_SIZE = 1_000;
+    private static final long COMPACTION_PAUSE_MS = 50L;
+    private static final long COMPACTION_FIRST_RUN_MINUTES = 5L;
+    private static final long DEFAULT_WINDOW_MILLIS = 86_400_000L;
+
     private final VoteChecker plugin;
-    private Connection connection;
 
-    private final ExecutorService dbExecutor = java.util.concurrent.Executors.newSingleThreadExecutor(r -> {
-        Thread t = new Thread(r, "VoteDB-Worker");
-        t.setDaemon(true);
-        return t;
-    });
+    // Storage backend, replaced on reconnect.
+    private volatile VoteStore store;
+    private volatile boolean storeReady; // schema brought up to date on the write lane
+
+    // Read lane: several threads, checks run in parallel.
+    private final ThreadPoolExecutor readExecutor;
+
+    // Write lane: one thread, so inserts keep their order.
+    private final ScheduledThreadPoolExecutor writeExecutor = new ScheduledThreadPoolExecutor(1, namedThreads("VoteDB-Writer"));
+
+    // Migrations get their own thread and connections.
+    private final ExecutorService migrationExecutor = Executors.newSingleThreadExecutor(namedThreads("VoteDB-Migrator"));
+    private final AtomicBoolean migrationRunning = new AtomicBoolean();
+
+    private final VoteJournal journal;
+    private final VoteBatchWriter batchWriter;
+    private final LastVoteIndex lastVoteIndex = new LastVoteIndex(SettingKey.CACHE_MAX_ENTRIES.get());
+    private final NameResolver nameResolver;
+    private final CircuitBreaker breaker;
+    private final VoteCheckCoalescer checks = new VoteCheckCoalescer(
+            () -> SettingKey.CACHE_NEGATIVE_TTL_SECONDS.get() * 1000L, SettingKey.CACHE_MAX_ENTRIES.get());
+    private volatile VoteWindow voteWindow;
+    private final VoteLeaderboards leaderboards = new VoteLeaderboards();
+    private final VoteStreaks streaks = new VoteStreaks(leaderboards, SettingKey.CACHE_STREAK_ENTRIES.get());
+    private final Map<UUID, Prefetched> prefetched = new ConcurrentHashMap<>();
+    private final List<Consumer<UUID>> voteListeners = new CopyOnWriteArrayList<>();
+    private volatile SiteVoteIndex siteIndex; // null when no vote sites are configured
+    private volatile long lastSyncMillis;
+    private BukkitTask syncTask;
+
+    private boolean backfillRunning; // write lane only
+    private int backfilled; // write lane only
+    private long compacted; // write lane only
 
     public VoteDatabaseManager(VoteChecker plugin) {
         this.plugin = plugin;
+        // Pending background steps (compaction, backfill chunks, delayed flushes) are dropped on
+        // shutdown; the final flush is queued right away and votes not written stay in the journal.
+        writeExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        compileVoteWindow();
+        compileVoteSites();
+        this.readExecutor = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, SettingKey.CHECK_MAX_QUEUED.get())), namedThreads("VoteDB-Reader"));
+        this.breaker = new CircuitBreaker(plugin.getLogger(), SettingKey.BREAKER_FAILURE_THRESHOLD::get,
+                () -> SettingKey.BREAKER_MAX_BACKOFF_SECONDS.get() * 1000L);
+        this.nameResolver = new NameResolver(SettingKey.CACHE_NAME_ENTRIES.get());
+        this.journal = new VoteJournal(plugin.getLogger(), new File(plugin.getDataFolder(), "votes.journal"),
+                SettingKey.JOURNAL_SYNC_WRITES.get());
+        this.batchWriter = new VoteBatchWriter(plugin.getLogger(), writeExecutor, this::storeVotes, journal,
+                SettingKey.BATCH_MAX_SIZE::get, SettingKey.BATCH_MAX_DELAY_MS::get, SettingKey.BATCH_MAX_QUEUED::get);
+        openJournal();
         connect();
-        createTable();
+        if (journal.hasUnacknowledged()) {
+            batchWriter.startReplay();
+        }
+
+        writeExecutor.schedule(this::compactOldVotes, COMPACTION_FIRST_RUN_MINUTES, TimeUnit.MINUTES);
+        long refreshMinutes = Math.max(1, SettingKey.LEADERBOARD_REFRESH_MINUTES.get());
+        writeExecutor.scheduleWithFixedDelay(this::refreshSharedLeaderboards, refreshMinutes, refreshMinutes, TimeUnit.MINUTES);
+
+        long syncTicks = Math.max(1, SettingKey.CACHE_SYNC_INTERVAL_SECONDS.get()) * 20L;
+        this.syncTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin,
+                () -> executeRead(this::syncRecentVotes), syncTicks, syncTicks);
+    }
+
+    /**
+     * Opens the local vote journal. Votes left in it by the last run (database down, crash,
+     * shutdown timeout) go into the index right away and are replayed once the table is ready.
+     */
+    private void openJournal() {
+        try {
+            int recovered = journal.open(entry -> {
+                if (entry.uuid == null) return; // recorded once resolved, before it is stored
+                lastVoteIndex.record(entry.uuid, entry.voteMillis);
+                SiteVoteIndex sites = siteIndex;
+                if (sites != null) sites.record(entry.uuid, entry.serviceName, entry.voteMillis);
+            });
+            if (recovered > 0) {
+                plugin.getLogger().info("Found " + recovered + " journaled vote(s) not yet stored, replaying them...");
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to open the vote journal, votes will only be queued in memory: " + e.getMessage());
+        }
+    }
+
+    private static ThreadFactory namedThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
     }
 
-    private String getTableName() {
-        boolean isMySQL = SettingKey.DATABASE_TYPE.get().equalsIgnoreCase("MYSQL");
-        String prefix = isMySQL ? SettingKey.MYSQL_TABLE_PREFIX.get() : "";
-        return prefix + "votes";
+    private static int getPoolSize() {
+        return Math.max(1, SettingKey.MYSQL_POOL_SIZE.get());
+    }
+
+    private void resizeReaders(int readers) {
+        if (readers >= readExecutor.getMaximumPoolSize()) {
+            readExecutor.setMaximumPoolSize(readers);
+            readExecutor.setCorePoolSize(readers);
+        } else {
+            readExecutor.setCorePoolSize(readers);
+            readExecutor.setMaximumPoolSize(readers);
+        }
+    }
+
+    public StorageType getStorageType() {
+        return StorageType.fromName(SettingKey.DATABASE_TYPE.get());
+    }
+
+    /**
+     * Creates (but does not open) a backend of the given type from the current settings.
+     */
+    private VoteStore createStore(StorageType type, int readConnections) {
+        switch (type) {
+            case MYSQL:
+                return new MySqlVoteStore(plugin.getLogger(),
+                        SettingKey.MYSQL_HOST.get(), SettingKey.MYSQL_PORT.get(), SettingKey.MYSQL_DATABASE.get(),
+                        SettingKey.MYSQL_USER.get(), SettingKey.MYSQL_PASSWORD.get(), SettingKey.MYSQL_USE_SSL.get(),
+                        SettingKey.MYSQL_TABLE_PREFIX.get(), readConnections);
+            case LOCAL:
+                return new LogVoteStore(plugin.getLogger(), new File(plugin.getDataFolder(), "votes.log"));
+            case SQLITE:
+            default:
+                return new SqliteVoteStore(plugin.getLogger(), new File(plugin.getDataFolder(), "votes.db"), readConnections);
+        }
     }
 
     private void connect() {
-        String type = SettingKey.DATABASE_TYPE.get().trim().toUpperCase();
+        StorageType type = getStorageType();
+        int readers = getPoolSize();
+        resizeReaders(readers);
 
+        VoteStore created = createStore(type, readers);
+        storeReady = false;
+        store = created;
         try {
-            if (type.equals("MYSQL")) {
-                String host = SettingKey.MYSQL_HOST.get();
-                int port = SettingKey.MYSQL_PORT.get();
-                String db = SettingKey.MYSQL_DATABASE.get();
-                String user = SettingKey.MYSQL_USER.get();
-                String pass = SettingKey.MYSQL_PASSWORD.get();
-                boolean ssl = SettingKey.MYSQL_USE_SSL.get();
-
-                String url = "jdbc:mysql://" + host + ":" + port + "/" + db + "?useSSL=" + ssl + "&autoReconnect=true";
-                connection = DriverManager.getConnection(url, user, pass);
-                plugin.getLogger().info("Connected to MySQL database (" + db + ") ✅");
-            } else {
-                File folder = plugin.getDataFolder();
-                if (!folder.exists()) folder.mkdirs();
+            created.open();
+            plugin.getLogger().info("Connected to " + created.getDescription() + " ✅");
+        } catch (VoteStoreException e) {
+            plugin.getLogger().severe("Failed to connect to " + type + " database: " + e.getMessage());
+            e.printStackTrace();
+            return;
+        }
 
-                String path = folder.getAbsolutePath() + File.separator + "votes.db";
-                connection = DriverManager.getConnection("jdbc:sqlite:" + path);
+        writeExecutor.execute(() -> prepareStore(created));
+    }
 
-                try (Statement s = connection.createStatement()) {
-                    s.execute("PRAGMA journal_mode=WAL");
-                    s.execute("PRAGMA busy_timeout=5000");
+    /**
+     * Brings the schema up to date on the write lane, ahead of any queued insert. On a large table
+     * the one-time deduplication and index builds take a while; votes keep going to the journal
+     * meanwhile and checks get the failure mode answer instead of stalling the server.
+     */
+    private void prepareStore(VoteStore created) {
+        if (created != store) return; // replaced by a reconnect meanwhile
+        try {
+            created.migrateSchema();
+        } catch (VoteStoreException e) {
+            plugin.getLogger().severe("Failed to upgrade the " + created.getType() + " database schema: " + e.getMessage());
+            e.printStackTrace();
+            return;
+        }
+        if (created != store) return;
+
+        // Legacy rows are invisible to the indexed lookups until they get their epoch, so the ones
+        // inside the vote windows are upgraded before checks may ask; the rest follows in chunks.
+        long now = System.currentTimeMillis();
+        long since = getWindowStartMillis(now);
+        SiteVoteIndex sites = siteIndex;
+        if (sites != null) since = Math.min(since, sites.minWindowStart(now));
+        try {
+            int upgraded = created.upgradeRecent(since, BACKFILL_CHUNK_SIZE);
+            if (upgraded > 0) {
+                plugin.getLogger().info("Upgraded " + upgraded + " recent legacy vote row(s) ✅");
+            }
+        } catch (VoteStoreException e) {
+            // Checks may miss legacy votes until the chunked backfill reaches them.
+            plugin.getLogger().severe("Failed to upgrade recent legacy vote rows: " + e.getMessage());
+        }
+        if (created != store) return;
+        storeReady = true;
+
+        if (!backfillRunning) {
+            backfillRunning = true;
+            backfillLegacyRows();
+        }
+    }
+
+    /**
+     * Upgrades rows written by older versions (epoch millis, lowercase names) in small chunks
+     * on the write lane, so new votes keep flowing while an old table is upgraded.
+     */
+    private void backfillLegacyRows() {
+        VoteStore current = store;
+        try {
+            if (backfilled == 0) {
+                long pending = current.countPendingUpgrade();
+                if (pending == 0) {
+                    backfillRunning = false;
+                    executeRead(this::warmLastVoteIndex);
+                    loadLeaderboards();
+                    return;
                 }
+                plugin.getLogger().info("Upgrading " + pending + " legacy vote rows (epoch millis, lowercase names)...");
+            }
 
-                plugin.getLogger().info("Connected to SQLite database (votes.db) ✅");
+            int converted = current.upgradeStep(BACKFILL_CHUNK_SIZE);
+            backfilled += converted;
+            if (converted == 0) {
+                plugin.getLogger().info("Legacy vote rows upgraded (" + backfilled + " row updates) ✅");
+                backfilled = 0;
+                backfillRunning = false;
+                executeRead(this::warmLastVoteIndex);
+                loadLeaderboards();
+                return;
             }
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Failed to connect to " + type + " database: " + e.getMessage());
-            e.printStackTrace();
+        } catch (VoteStoreException e) {
+            plugin.getLogger().severe("Failed to upgrade legacy vote rows: " + e.getMessage());
+            backfillRunning = false;
+            return;
         }
+
+        scheduleWrite(this::backfillLegacyRows, BACKFILL_PAUSE_MS, TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * Rolls raw votes older than the configured age into the daily aggregate table, one small
+     * transaction per chunk on the write lane with a pause in between so new votes keep flowing.
+     * Rows inside the current vote window are never compacted.
+     */
+    private void compactOldVotes() {
+        int keepDays = SettingKey.COMPACTION_KEEP_DAYS.get();
+        if (keepDays <= 0) {
+            scheduleNextCompaction();
+            return;
+        }
 
-    private void createTable() {
-        boolean isMySQL = SettingKey.DATABASE_TYPE.get().equalsIgnoreCase("MYSQL");
-        String table = getTableName();
+        long now = System.currentTimeMillis();
+        long cutoff = Math.min(now - keepDays * VoteCompactor.DAY_MILLIS, getWindowStartMillis(now) - VoteCompactor.DAY_MILLIS);
 
-        String idColumn = isMySQL
-                ? "id INT AUTO_INCREMENT PRIMARY KEY"
-                : "id INTEGER PRIMARY KEY AUTOINCREMENT";
+        try {
+            int rows = store.compactStep(cutoff, COMPACTION_CHUNK_SIZE);
+            compacted += rows;
+            if (rows > 0) {
+                scheduleWrite(this::compactOldVotes, COMPACTION_PAUSE_MS, TimeUnit.MILLISECONDS);
+                return;
+            }
+            if (compacted > 0) {
+                plugin.getLogger().info("Compacted " + compacted + " vote row(s) older than " + keepDays + " day(s) into daily totals ✅");
+            }
+        } catch (VoteStoreException e) {
+            plugin.getLogger().severe("Failed to compact old votes: " + e.getMessage());
+        }
+        compacted = 0;
+        scheduleNextCompaction();
+    }
 
-        String create = "CREATE TABLE IF NOT EXISTS " + table + " (" +
-                idColumn + "," +
-                "player_uuid VARCHAR(36) NOT NULL," +
-                "player_name VARCHAR(64) NOT NULL," +
-                "service_name VARCHAR(128) NOT NULL," +
-                "vote_time VARCHAR(64) NOT NULL" +
-                (isMySQL ? ", INDEX (player_uuid), INDEX (player_name)" : "") +
-                ");";
+    private void scheduleNextCompaction() {
+        long minutes = Math.max(1, SettingKey.COMPACTION_INTERVAL_MINUTES.get());
+        scheduleWrite(this::compactOldVotes, minutes, TimeUnit.MINUTES);
+    }
 
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(create);
-            plugin.getLogger().info("Table '" + table + "' checked/created ✅");
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Failed to create votes table: " + e.getMessage());
+    /** Schedules the next step of a background job on the write lane, unless it is shutting down. */
+    private void scheduleWrite(Runnable step, long delay, TimeUnit unit) {
+        if (writeExecutor.isShutdown()) return;
+        try {
+            writeExecutor.schedule(step, delay, unit);
+        } catch (RejectedExecutionException ignored) {
+            // Shut down meanwhile.
         }
     }
 
+    /**
+     * Loads the latest vote of everyone who voted in the current window, after which the
+     * index can answer "not voted" without asking the database. Runs after the legacy
+     * backfill so no recent vote is missing its epoch.
+     */
+    private void warmLastVoteIndex() {
+        long started = System.currentTimeMillis();
+        long since = getWindowStartMillis(started);
+        AtomicInteger players = new AtomicInteger();
 
-    public void addVoteAsync(UUID uuid, String playerName, String serviceName, String timestamp) {
-        CompletableFuture.runAsync(() -> {
-            String table = getTableName();
-            String query = "INSERT INTO " + table + " (player_uuid, player_name, service_name, vote_time) VALUES (?, ?, ?, ?)";
-            try (PreparedStatement stmt = connection.prepareStatement(query)) {
-                stmt.setString(1, uuid.toString());
-                stmt.setString(2, playerName);
-                stmt.setString(3, serviceName);
-                stmt.setString(4, timestamp);
-                stmt.executeUpdate();
-            } catch (SQLException e) {
-                plugin.getLogger().severe("Failed to insert vote for " + playerName + ": " + e.getMessage());
+        try {
+            store.loadLatestVotes(since, (uuid, voteMillis) -> {
+                lastVoteIndex.record(uuid, voteMillis);
+                players.incrementAndGet();
+            });
+            lastVoteIndex.markWarm(since);
+            SiteVoteIndex sites = siteIndex;
+            if (sites != null) {
+                // Every vote inside the site windows is loaded, so these entries are complete from here on.
+                long sitesSince = sites.minWindowStart(started);
+                store.loadLatestSiteVotes(sitesSince, (uuid, service, voteMillis) -> {
+                    int bit = sites.bitOf(service);
+                    if (bit < 0) return;
+                    long[] latest = new long[sites.getBitCount()];
+                    latest[bit] = voteMillis;
+                    sites.load(uuid, latest, sitesSince);
+                });
             }
-        }, dbExecutor);
+            lastSyncMillis = started;
+            plugin.getLogger().info("Last-vote index warmed with " + players.get() + " recent voter(s) ✅");
+        } catch (VoteStoreException e) {
+            plugin.getLogger().severe("Failed to warm last-vote index: " + e.getMessage());
+        }
     }
 
-    public CompletableFuture<Boolean> hasVotedTodayAsync(UUID uuid, String playerName) {
-        return CompletableFuture.supplyAsync(() -> {
-            String table = getTableName();
-            String query = "SELECT vote_time FROM " + table +
-                    " WHERE player_uuid = ? OR LOWER(player_name) = LOWER(?) ORDER BY vote_time DESC LIMIT 1";
-
-            try (PreparedStatement stmt = connection.prepareStatement(query)) {
-                stmt.setString(1, uuid.toString());
-                stmt.setString(2, playerName);
-                ResultSet rs = stmt.executeQuery();
-
-                if (!rs.next()) return false;
-
-                String rawTime = rs.getString("vote_time");
-                java.time.LocalDateTime voteDateTime = java.time.LocalDateTime.parse(rawTime);
-
-                ZoneId zone = resolveZoneIdSafe(SettingKey.VOTE_RESET_TIMEZONE.get());
-                long voteMillis = voteDateTime.atZone(zone).toInstant().toEpochMilli();
-                long nowMillis = java.time.ZonedDateTime.now(zone).toInstant().toEpochMilli();
-
-                String resetRule = SettingKey.VOTE_RESET.get();
-                boolean isDuration = isDurationFormat(resetRule);
-                boolean isDailyTime = isDailyTimeFormat(resetRule);
-
-                if (isDuration) {
-                    long windowMs = parseDurationMillis(resetRule);
-                    return (nowMillis - voteMillis) <= windowMs;
-                } else if (isDailyTime) {
-                    java.time.LocalTime resetAt = java.time.LocalTime.parse(padDailyTime(resetRule));
-                    long lastResetMillis = computeLastResetMillis(resetAt, zone);
-                    return voteMillis >= lastResetMillis;
-                } else {
-                    return (nowMillis - voteMillis) <= 86_400_000L;
-                }
-            } catch (Exception e) {
-                plugin.getLogger().severe("Failed to check vote for " + playerName + ": " + e.getMessage());
-                return false;
+    /**
+     * Loads every leaderboard from the store, once per period. Runs on the write lane, so each
+     * stored vote is either part of the load or recorded by {@link #storeVotes} afterwards.
+     */
+    private void loadLeaderboards() {
+        VoteStore current = store;
+        long now = System.currentTimeMillis();
+        try {
+            for (LeaderboardPeriod period : LeaderboardPeriod.values()) {
+                long start = leaderboards.periodStart(period, now);
+                Map<UUID, VoteLeaderboard.Entry> totals = new HashMap<>();
+                current.loadVoteCounts(start, (uuid, name, votes) -> totals.put(uuid, new VoteLeaderboard.Entry(uuid, name, votes)));
+                leaderboards.get(period).load(start, leaderboards.periodEnd(period, start), totals);
             }
-        }, dbExecutor);
+        } catch (VoteStoreException e) {
+            plugin.getLogger().severe("Failed to load vote leaderboards: " + e.getMessage());
+        }
     }
 
-    public CompletableFuture<Boolean> isEmptyAsync() {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Statement stmt = connection.createStatement();
-                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) AS count FROM votes")) {
-                return rs.next() && rs.getInt("count") == 0;
-            } catch (SQLException e) {
-                plugin.getLogger().severe("Failed to check database state: " + e.getMessage());
-                return false;
+    /** Votes from other servers only reach the leaderboards by reloading them; streaks get them from the sync. */
+    private void refreshSharedLeaderboards() {
+        if (store.isShared() && leaderboards.get(LeaderboardPeriod.ALLTIME).isLoaded()) {
+            loadLeaderboards();
+        }
+    }
+
+    /**
+     * Batch writer target: stores the votes, then counts the ones that were new on the
+     * leaderboards and streaks (a replayed or re-submitted vote is skipped). Write lane only.
+     */
+    private void storeVotes(List<StoredVote> votes) throws VoteStoreException {
+        List<StoredVote> resolved = resolveVoters(votes);
+        if (resolved.isEmpty()) return;
+        for (StoredVote vote : store.insert(resolved)) {
+            leaderboards.record(vote.uuid, vote.playerName, vote.voteMillis, vote.count);
+            streaks.record(vote.uuid, vote.voteMillis);
+        }
+    }
+
+    /**
+     * Daily vote streak of a player, from memory. Null the first time a player is asked for:
+     * their vote history is then read once on the read lane and kept up to date from there.
+     */
+    public VoteStreaks.Streak getStreak(UUID uuid) {
+        VoteStreaks.Streak streak = streaks.get(uuid);
+        if (streak != null) return streak;
+
+        VoteStreaks.Load load = streaks.beginLoad(uuid);
+        if (load == null) return null; // already loading
+
+        // Votes stored while the history is read are buffered by the load, see VoteStreaks.
+        guardedRead(() -> {
+            List<Long> times = new ArrayList<>();
+            store.findVoteTimes(uuid, times::add);
+            return times.stream().mapToLong(Long::longValue).toArray();
+        }).whenComplete((times, error) -> {
+            if (error == null) {
+                streaks.finishLoad(load, times);
+                return;
+            }
+            streaks.cancelLoad(load);
+            if (SettingKey.DEBUG.get()) {
+                plugin.getLogger().warning("[DEBUG] Failed to load the vote streak of " + uuid + ": " + describe(error));
             }
-        }, dbExecutor);
+        });
+        return null;
     }
 
-    public boolean isEmpty() {
+    /**
+     * Pulls votes written by other servers sharing the same MySQL database into the index.
+     * The window overlaps the previous run, so votes committed late are not skipped.
+     */
+    private void syncRecentVotes() {
+        checks.prune();
+        long since = lastSyncMillis;
+        VoteStore current = store;
+        if (since == 0L || !current.isShared()) return;
+        long started = System.currentTimeMillis();
+
         try {
-            return isEmptyAsync().join();
-        } catch (Exception e) {
-            plugin.getLogger().severe("Failed to check database state (sync): " + e.getMessage());
-            return false;
+            current.loadLatestVotes(since - SYNC_OVERLAP_MS, (uuid, voteMillis) -> {
+                // Streaks count days, so votes seen before are harmless there.
+                streaks.record(uuid, voteMillis);
+                // The overlap reports votes already seen; only new ones reset checks and notify.
+                if (lastVoteIndex.record(uuid, voteMillis)) {
+                    checks.invalidate(uuid);
+                    notifyVote(uuid);
+                }
+            });
+            SiteVoteIndex sites = siteIndex;
+            if (sites != null) {
+                current.loadLatestSiteVotes(since - SYNC_OVERLAP_MS, sites::record);
+                sites.prune(sites.minWindowStart(started));
+            }
+            lastSyncMillis = started;
+        } catch (VoteStoreException e) {
+            if (SettingKey.DEBUG.get()) {
+                plugin.getLogger().warning("[DEBUG] Failed to sync recent votes: " + e.getMessage());
+            }
         }
     }
 
-    public CompletableFuture<Void> wipeVotesAsync() {
-        return CompletableFuture.runAsync(() -> {
-            try (Statement stmt = connection.createStatement()) {
-                stmt.executeUpdate("DELETE FROM votes");
-                plugin.getLogger().info("[VoteChecker] All vote records have been wiped.");
-            } catch (SQLException e) {
-                plugin.getLogger().severe("Failed to wipe votes: " + e.getMessage());
+    /**
+     * Loads one player's latest vote into the index, e.g. on join.
+     */
+    public CompletableFuture<Void> loadLastVoteAsync(UUID uuid, String playerName) {
+        return this.<Void>guardedRead(() -> {
+            long windowStart = getWindowStartMillis(System.currentTimeMillis());
+            long latest = store.findLatestVote(uuid, playerName, windowStart);
+            if (latest > 0) lastVoteIndex.record(uuid, latest);
+            return null;
+        }).exceptionally(error -> {
+            plugin.getLogger().warning("Failed to load last vote of " + playerName + ": " + describe(error));
+            return null;
+        });
+    }
+
+    public LastVoteIndex getLastVoteIndex() {
+        return lastVoteIndex;
+    }
+
+    public NameResolver getNameResolver() {
+        return nameResolver;
+    }
+
+    /**
+     * Journals a vote and queues it for the group-commit pipeline.
+     * It is written together with other votes once the batch fills up or the flush delay passes;
+     * if the database is unavailable it waits in the journal until it can be written.
+     * A null {@code uuid} (player not known in memory) is resolved on the write lane before the vote is stored.
+     */
+    public void addVoteAsync(UUID uuid, String playerName, String serviceName, long voteMillis) {
+        if (uuid != null) {
+            lastVoteIndex.record(uuid, voteMillis);
+            SiteVoteIndex sites = siteIndex;
+            if (sites != null) sites.record(uuid, serviceName, voteMillis);
+            checks.invalidate(uuid);
+            notifyVote(uuid);
+            nameResolver.put(playerName, uuid);
+        }
+        batchWriter.submit(uuid, playerName, serviceName, voteMillis);
+    }
+
+    /**
+     * Gives votes journaled without a UUID their player's real one, once per name and batch.
+     * A name that cannot be resolved has its vote dropped: no UUID is ever made up for it.
+     * Write lane only.
+     */
+    private List<StoredVote> resolveVoters(List<StoredVote> votes) {
+        boolean pending = false;
+        for (StoredVote vote : votes) {
+            if (vote.uuid == null) {
+                pending = true;
+                break;
+            }
+        }
+        if (!pending) return votes;
+
+        Map<String, UUID> lookedUp = new HashMap<>();
+        List<StoredVote> resolved = new ArrayList<>(votes.size());
+        for (StoredVote vote : votes) {
+            if (vote.uuid != null) {
+                resolved.add(vote);
+                continue;
+            }
+            String key = vote.playerName.toLowerCase(Locale.ROOT);
+            UUID uuid = lookedUp.containsKey(key) ? lookedUp.get(key) : lookupUuid(vote.playerName);
+            lookedUp.put(key, uuid);
+            if (uuid == null) {
+                plugin.getLogger().warning("No account found for " + vote.playerName + ", dropped their vote from " + vote.serviceName + ".");
+                continue;
+            }
+            boolean fresh = lastVoteIndex.record(uuid, vote.voteMillis);
+            SiteVoteIndex sites = siteIndex;
+            if (sites != null) sites.record(uuid, vote.serviceName, vote.voteMillis);
+            nameResolver.put(vote.playerName, uuid);
+            // A replayed batch resolves the same vote again; only the first time resets checks and notifies.
+            if (fresh) {
+                checks.invalidate(uuid);
+                notifyVote(uuid);
             }
-        }, dbExecutor);
+            resolved.add(new StoredVote(uuid, vote.playerName, vote.serviceName, vote.voteMillis, vote.count));
+        }
+        return resolved;
     }
 
-    public CompletableFuture<Integer> migrateAsync(String from, String to) {
-        return CompletableFuture.supplyAsync(() -> {
-            int migrated = 0;
+    /**
+     * Name to UUID, off the main thread: names seen before, then the UUID the name last voted
+     * with, then Bukkit, whose lookup may block on the account service. On online-mode servers an
+     * offline-mode UUID (derived from the name, as older versions stored and as Bukkit falls back
+     * to) is never accepted.
+     */
+    @SuppressWarnings("deprecation")
+    private UUID lookupUuid(String playerName) {
+        UUID cached = nameResolver.getCached(playerName);
+        if (cached != null) return cached;
+        try {
+            UUID stored = store.findUuidByName(playerName);
+            if (isAccountUuid(stored)) return stored;
+        } catch (VoteStoreException e) {
+            plugin.getLogger().warning("Failed to look up the UUID of " + playerName + ": " + e.getMessage());
+        }
+        UUID looked = Bukkit.getOfflinePlayer(playerName).getUniqueId();
+        return isAccountUuid(looked) ? looked : null;
+    }
+
+    private static boolean isAccountUuid(UUID uuid) {
+        return uuid != null && (uuid.version() != 3 || !Bukkit.getOnlineMode());
+    }
+
+    /**
+     * All-time number of votes of a player, including rolled-up history.
+     */
+    public CompletableFuture<Long> getTotalVotesAsync(UUID uuid) {
+        return guardedRead(() -> store.countVotes(uuid)).exceptionally(error -> {
+            plugin.getLogger().severe("Failed to count votes of " + uuid + ": " + describe(error));
+            return 0L;
+        });
+    }
+
+    /**
+     * Called with the player's UUID whenever a vote is recorded here or synced from another server.
+     */
+    public void addVoteListener(Consumer<UUID> listener) {
+        voteListeners.add(listener);
+    }
+
+    private void notifyVote(UUID uuid) {
+        for (Consumer<UUID> listener : voteListeners) {
             try {
-                String fromType = from.trim().toUpperCase();
-                String toType = to.trim().toUpperCase();
+                listener.accept(uuid);
+            } catch (RuntimeException e) {
+                plugin.getLogger().warning("Vote listener failed: " + e.getMessage());
+            }
+        }
+    }
 
-                if (fromType.equals(toType)) {
-                    plugin.getLogger().warning("[VoteChecker] Migration skipped: same database type (" + fromType + ")");
-                    return 0;
-                }
+    /**
+     * Leaderboard of the period running now, kept in memory and updated as votes are stored.
+     * Empty until loaded after startup or a reload.
+     */
+    public VoteLeaderboard getLeaderboard(LeaderboardPeriod period) {
+        return leaderboards.get(period);
+    }
+
+    public VoteBatchWriter.Stats getBatchStats() {
+        return batchWriter.getStats();
+    }
+
+    /**
+     * Completes immediately from the last-vote index when it can answer;
+     * otherwise asks the database and remembers the result.
+     * With vote sites configured, every site is checked against its own window.
+     */
+    public CompletableFuture<Boolean> hasVotedTodayAsync(UUID uuid, String playerName) {
+        long now = System.currentTimeMillis();
+        SiteVoteIndex sites = siteIndex;
+        Boolean cached = getCachedVoteStatus(sites, uuid, now);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return checks.check(uuid, () -> queryVoteStatusAsync(sites, uuid, playerName, now))
+                .exceptionally(error -> {
+                    if (SettingKey.DEBUG.get()) {
+                        plugin.getLogger().warning("[DEBUG] Vote check for " + playerName + " failed: " + describe(error));
+                    }
+                    return isFailOpen();
+                });
+    }
+
+    /**
+     * {@link #hasVotedTodayAsync} for many players at once. Players the in-memory indexes know
+     * are answered right away; the rest are looked up together in one read (chunked by the store),
+     * by UUID only. Players the database could not answer for get the failure-mode answer.
+     */
+    public CompletableFuture<Map<UUID, Boolean>> hasVotedTodayAsync(Collection<UUID> uuids) {
+        long now = System.currentTimeMillis();
+        SiteVoteIndex sites = siteIndex;
+        Map<UUID, Boolean> result = new HashMap<>();
+        List<UUID> unknown = new ArrayList<>();
+        for (UUID uuid : uuids) {
+            Boolean cached = getCachedVoteStatus(sites, uuid, now);
+            if (cached != null) {
+                result.put(uuid, cached);
+            } else {
+                unknown.add(uuid);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return CompletableFuture.completedFuture(result);
+        }
 
-                plugin.getLogger().info("[VoteChecker] Starting migration: " + fromType + " → " + toType + " ...");
+        return guardedRead(() -> {
+            Map<UUID, Boolean> found = new HashMap<>();
+            if (sites != null) {
+                long since = sites.minWindowStart(now);
+                Map<UUID, long[]> latest = new HashMap<>();
+                store.findLatestSiteVotes(unknown, since, (uuid, service, voteMillis) -> {
+                    int bit = sites.bitOf(service);
+                    if (bit < 0) return;
+                    long[] perBit = latest.computeIfAbsent(uuid, id -> new long[sites.getBitCount()]);
+                    perBit[bit] = Math.max(perBit[bit], voteMillis);
+                });
+                // Found by UUID only: votes made under the player's name are missing, so the entries stay incomplete.
+                for (UUID uuid : unknown) {
+                    long[] perBit = latest.get(uuid);
+                    if (perBit != null) sites.addVotes(uuid, perBit);
+                    found.put(uuid, sites.hasVoted(uuid, now) == Boolean.TRUE);
+                }
+            } else {
+                long windowStart = getWindowStartMillis(now);
+                store.findLatestVotes(unknown, windowStart, (uuid, voteMillis) -> {
+                    lastVoteIndex.record(uuid, voteMillis);
+                    found.put(uuid, Boolean.TRUE);
+                });
+                for (UUID uuid : unknown) found.putIfAbsent(uuid, Boolean.FALSE);
+            }
+            return found;
+        }).handle((found, error) -> {
+            if (error != null) {
+                if (SettingKey.DEBUG.get()) {
+                    plugin.getLogger().warning("[DEBUG] Bulk vote check for " + unknown.size() + " player(s) failed: " + describe(error));
+                }
+                boolean answer = isFailOpen();
+                for (UUID uuid : unknown) result.put(uuid, answer);
+            } else {
+                result.putAll(found);
+            }
+            return result;
+        });
+    }
 
-                File folder = plugin.getDataFolder();
-                String sqlitePath = folder.getAbsolutePath() + File.separator + "votes.db";
+    private CompletableFuture<Boolean> queryVoteStatusAsync(SiteVoteIndex sites, UUID uuid, String playerName, long now) {
+        if (sites != null) {
+            return guardedRead(() -> {
+                loadSiteVotes(sites, uuid, playerName, now);
+                return sites.hasVoted(uuid, now) == Boolean.TRUE;
+            });
+        }
 
-                String host = SettingKey.MYSQL_HOST.get();
-                int port = SettingKey.MYSQL_PORT.get();
-                String db = SettingKey.MYSQL_DATABASE.get();
-                String user = SettingKey.MYSQL_USER.get();
-                String pass = SettingKey.MYSQL_PASSWORD.get();
-                boolean ssl = SettingKey.MYSQL_USE_SSL.get();
-                String tablePrefix = SettingKey.MYSQL_TABLE_PREFIX.get();
+        long windowStart = getWindowStartMillis(now);
+        return guardedRead(() -> {
+            long latest = store.findLatestVote(uuid, playerName, windowStart);
+            if (latest > 0) lastVoteIndex.record(uuid, latest);
+            return latest >= windowStart;
+        });
+    }
 
-                Connection sqlite = DriverManager.getConnection("jdbc:sqlite:" + sqlitePath);
-                Connection mysql = DriverManager.getConnection("jdbc:mysql://" + host + ":" + port + "/" + db +
-                        "?useSSL=" + ssl + "&autoReconnect=true", user, pass);
+    /** A read against the store that may fail. */
+    @FunctionalInterface
+    private interface StoreRead<T> {
+        T read() throws VoteStoreException;
+    }
 
-                String sqliteTable = "votes";
-                String mysqlTable = tablePrefix + "votes";
+    /**
+     * Runs a check on the read lane with a deadline, behind the circuit breaker.
+     * Fails right away while the schema is being upgraded, the circuit is open or the read queue is full.
+     */
+    private <T> CompletableFuture<T> guardedRead(StoreRead<T> read) {
+        if (!storeReady) {
+            return CompletableFuture.failedFuture(new VoteStoreException("database schema is being upgraded"));
+        }
+        if (!breaker.allowRequest()) {
+            return CompletableFuture.failedFuture(new VoteStoreException("circuit open"));
+        }
 
-                if (fromType.equals("SQLITE")) {
-                    plugin.getLogger().info("→ Migrating local (SQLite) → global (MySQL) ...");
-                    migrated = copyTable(sqlite, sqliteTable, mysql, mysqlTable);
-                } else {
-                    plugin.getLogger().info("→ Migrating global (MySQL) → local (SQLite) ...");
-                    migrated = copyTable(mysql, mysqlTable, sqlite, sqliteTable);
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return read.read();
+                } catch (VoteStoreException e) {
+                    throw new CompletionException(e);
                 }
+            }, readExecutor);
+        } catch (RejectedExecutionException e) {
+            breaker.recordFailure();
+            return CompletableFuture.failedFuture(new VoteStoreException("read queue full", e));
+        }
 
-                sqlite.close();
-                mysql.close();
-                plugin.getLogger().info("[VoteChecker] Migration complete → " + migrated + " entries ✅");
-                return migrated;
+        long timeoutMs = Math.max(1, SettingKey.CHECK_TIMEOUT_MS.get());
+        return future.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).whenComplete((result, error) -> {
+            if (error == null) {
+                breaker.recordSuccess();
+            } else {
+                breaker.recordFailure();
+            }
+        });
+    }
 
-            } catch (Exception e) {
-                plugin.getLogger().severe("[VoteChecker] Migration failed: " + e.getMessage());
-                e.printStackTrace();
-                return 0;
+    /** Background read on the read lane; skipped when the lane is backed up (database outage). */
+    private void executeRead(Runnable task) {
+        try {
+            readExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (SettingKey.DEBUG.get()) {
+                plugin.getLogger().warning("[DEBUG] Read queue full, skipped a background read.");
             }
-        }, dbExecutor);
+        }
     }
 
-    private int copyTable(Connection src, String srcTable, Connection dest, String destTable) throws SQLException {
-        int count = 0;
-        String select = "SELECT player_uuid, player_name, service_name, vote_time FROM " + srcTable;
-        String insert = "INSERT INTO " + destTable + " (player_uuid, player_name, service_name, vote_time) VALUES (?, ?, ?, ?)";
+    /** Answer for checks the database could not give: true lets the player through. */
+    private static boolean isFailOpen() {
+        return "OPEN".equalsIgnoreCase(SettingKey.CHECK_FAILURE_MODE.get().trim());
+    }
 
-        try (PreparedStatement selectStmt = src.prepareStatement(select);
-             ResultSet rs = selectStmt.executeQuery();
-             PreparedStatement insertStmt = dest.prepareStatement(insert)) {
+    private static String describe(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof TimeoutException ? "timed out" : String.valueOf(cause.getMessage());
+    }
 
-            while (rs.next()) {
-                String uuid = rs.getString("player_uuid");
-                String time = rs.getString("vote_time");
+    public CircuitBreaker getCircuitBreaker() {
+        return breaker;
+    }
 
-                try (PreparedStatement check = dest.prepareStatement(
-                        "SELECT 1 FROM " + destTable + " WHERE player_uuid=? AND vote_time=? LIMIT 1")) {
-                    check.setString(1, uuid);
-                    check.setString(2, time);
-                    if (check.executeQuery().next()) continue;
-                }
+    public VoteCheckCoalescer getCheckStats() {
+        return checks;
+    }
+
+    /**
+     * Same answer as {@link #hasVotedTodayAsync}, but from memory only, so it is safe on the main thread.
+     *
+     * @return TRUE or FALSE when the in-memory indexes can tell, null when the database has to be asked
+     */
+    public Boolean getCachedVoteStatus(UUID uuid) {
+        return getCachedVoteStatus(siteIndex, uuid, System.currentTimeMillis());
+    }
 
-                insertStmt.setString(1, uuid);
-                insertStmt.setString(2, rs.getString("player_name"));
-                insertStmt.setString(3, rs.getString("service_name"));
-                insertStmt.setString(4, time);
-                insertStmt.executeUpdate();
-                count++;
+    private Boolean getCachedVoteStatus(SiteVoteIndex sites, UUID uuid, long now) {
+        if (sites == null) {
+            return hasVotedSince(uuid, getWindowStartMillis(now));
+        }
+        if (hasVotedSince(uuid, sites.minWindowStart(now)) == Boolean.FALSE) {
+            return Boolean.FALSE;
+        }
+        return sites.hasVoted(uuid, now);
+    }
+
+    /**
+     * The last-vote index, completed by the state prefetched for online players.
+     *
+     * @return null when only the database can tell
+     */
+    private Boolean hasVotedSince(UUID uuid, long since) {
+        Boolean known = lastVoteIndex.hasVotedSince(uuid, since);
+        if (known != null) return known;
+
+        Prefetched state = prefetched.get(uuid);
+        if (state == null) return null;
+        if (Math.max(state.latestVote, lastVoteIndex.getLastVote(uuid)) >= since) return Boolean.TRUE;
+        return since >= state.completeFrom ? Boolean.FALSE : null;
+    }
+
+    /**
+     * When the player's vote stops counting under {@code vote-reset} (epoch millis), from memory
+     * only, so it never waits for the database.
+     *
+     * @return 0 if they can vote now, -1 if only the database can tell
+     */
+    public long getVoteExpiry(UUID uuid) {
+        long now = System.currentTimeMillis();
+        Boolean voted = hasVotedSince(uuid, getWindowStartMillis(now));
+        if (voted == null) return -1L;
+        if (!voted) return 0L;
+
+        long latest = lastVoteIndex.getLastVote(uuid);
+        Prefetched state = prefetched.get(uuid);
+        if (state != null) latest = Math.max(latest, state.latestVote);
+        return voteWindow.nextExpiry(latest);
+    }
+
+    /**
+     * Same as {@link #getVoteExpiry}, for one of the configured vote sites under its own window.
+     *
+     * @return 0 if they can vote there now, -1 if unknown or no vote sites are configured
+     */
+    public long getSiteVoteExpiry(UUID uuid, String service) {
+        SiteVoteIndex sites = siteIndex;
+        return sites != null ? sites.getExpiry(uuid, service, System.currentTimeMillis()) : -1L;
+    }
+
+    /**
+     * Loads a joining player's vote state (latest vote, and the site votes if configured), so
+     * checks and placeholders are answered from memory from the first tick on. Kept until
+     * {@link #evictPrefetched} after the player leaves.
+     */
+    public CompletableFuture<Void> prefetchAsync(UUID uuid, String playerName) {
+        return this.<Void>guardedRead(() -> {
+            long now = System.currentTimeMillis();
+            SiteVoteIndex sites = siteIndex;
+            long since = sites != null ? Math.min(sites.minWindowStart(now), getWindowStartMillis(now)) : getWindowStartMillis(now);
+            long latest = store.findLatestVote(uuid, playerName, since);
+            if (latest > 0) lastVoteIndex.record(uuid, latest);
+            prefetched.put(uuid, new Prefetched(since, latest));
+            if (sites != null) loadSiteVotes(sites, uuid, playerName, now);
+            return null;
+        }).exceptionally(error -> {
+            if (SettingKey.DEBUG.get()) {
+                plugin.getLogger().warning("[DEBUG] Failed to prefetch votes of " + playerName + ": " + describe(error));
             }
+            return null;
+        });
+    }
+
+    public boolean isPrefetched(UUID uuid) {
+        return prefetched.containsKey(uuid);
+    }
+
+    public void evictPrefetched(UUID uuid) {
+        prefetched.remove(uuid);
+    }
+
+
+    /**
+     * Names of the configured vote sites the player can still vote on, i.e. without a vote
+     * inside that site's window. Empty when no vote sites are configured.
+     */
+    public CompletableFuture<List<String>> getOpenSitesAsync(UUID uuid, String playerName) {
+        SiteVoteIndex sites = siteIndex;
+        if (sites == null) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
         }
-        return count;
+        long now = System.currentTimeMillis();
+        long mask = sites.getVotedMask(uuid, now);
+        if (mask != SiteVoteIndex.UNKNOWN) {
+            return CompletableFuture.completedFuture(sites.getOpenSites(mask));
+        }
+
+        return this.<List<String>>guardedRead(() -> {
+            loadSiteVotes(sites, uuid, playerName, now);
+            return sites.getOpenSites(sites.getVotedMask(uuid, now));
+        }).exceptionally(error -> Collections.emptyList());
     }
 
+    /** One grouped query for all of a player's sites, stored in the site index. */
+    private void loadSiteVotes(SiteVoteIndex sites, UUID uuid, String playerName, long now) throws VoteStoreException {
+        long since = sites.minWindowStart(now);
+        long[] latest = new long[sites.getBitCount()];
+        store.findLatestSiteVotes(uuid, playerName, since, (id, service, voteMillis) -> {
+            int bit = sites.bitOf(service);
+            if (bit >= 0) latest[bit] = Math.max(latest[bit], voteMillis);
+        });
+        sites.load(uuid, latest, since);
+    }
 
-    public void reconnect() {
-        try {
-            if (connection != null && !connection.getAutoCommit()) {
-                connection.commit();
+    /**
+     * Oldest vote time (epoch millis) that still counts for the current vote window.
+     */
+    public long getWindowStartMillis(long nowMillis) {
+        return voteWindow.windowStart(nowMillis);
+    }
+
+    public VoteWindow getVoteWindow() {
+        return voteWindow;
+    }
+
+    /**
+     * Builds the site index from {@code vote-sites}: each site gets its bit and its window,
+     * its own reset rule or else {@code vote-reset}. Without vote sites, checks only use the
+     * last-vote index.
+     */
+    private void compileVoteSites() {
+        VoteWindow defaultWindow = voteWindow;
+        ZoneId defaultZone = resolveZoneIdSafe(SettingKey.VOTE_RESET_TIMEZONE.get());
+        boolean requireAll = SettingKey.REQUIRE_ALL_SITES.get();
+
+        List<String> names = new ArrayList<>();
+        List<VoteWindow> windows = new ArrayList<>();
+        for (String entry : SettingKey.VOTE_SITES.get()) {
+            if (entry == null || entry.trim().isEmpty()) continue;
+            int equals = entry.indexOf('=');
+            if (equals < 0) {
+                names.add(entry.trim());
+                windows.add(defaultWindow);
+                continue;
             }
-        } catch (SQLException ignored) {}
 
-        closeConnectionOnly();
-        connect();
-        createTable();
+            String name = entry.substring(0, equals).trim();
+            String rule = entry.substring(equals + 1).trim();
+            ZoneId zone = defaultZone;
+            int at = rule.indexOf('@');
+            if (at >= 0) {
+                zone = resolveZoneIdSafe(rule.substring(at + 1).trim());
+                rule = rule.substring(0, at).trim();
+            }
+            try {
+                windows.add(VoteWindow.compile(rule, zone));
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Invalid reset rule for vote site '" + name + "' (" + e.getMessage() + "), using vote-reset.");
+                windows.add(defaultWindow);
+            }
+            names.add(name);
+        }
+
+        if (names.isEmpty()) {
+            if (requireAll) {
+                plugin.getLogger().warning("require-all-sites is enabled but 'vote-sites' is empty, one vote is enough.");
+            }
+            siteIndex = null;
+            return;
+        }
+        if (names.size() > SiteVoteIndex.MAX_SITES) {
+            plugin.getLogger().warning("Only the first " + SiteVoteIndex.MAX_SITES + " entries of 'vote-sites' are used.");
+        }
+        // When one vote is enough, votes on unlisted services still count under vote-reset.
+        siteIndex = new SiteVoteIndex(names, windows, requireAll ? null : defaultWindow, requireAll,
+                SettingKey.CACHE_MAX_ENTRIES.get());
     }
 
-    private void closeConnectionOnly() {
+    /**
+     * Parses {@code vote-reset} once; checks only evaluate the compiled window.
+     * An invalid rule falls back to a rolling 24h window.
+     */
+    private void compileVoteWindow() {
+        String rule = SettingKey.VOTE_RESET.get();
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-            }
-        } catch (SQLException ignored) {}
+            voteWindow = VoteWindow.compile(rule, resolveZoneIdSafe(SettingKey.VOTE_RESET_TIMEZONE.get()));
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Invalid vote-reset '" + rule + "' (" + e.getMessage() + "), using a rolling 24h window.");
+            voteWindow = new RollingWindow(DEFAULT_WINDOW_MILLIS);
+        }
+        leaderboards.configure(voteWindow, resolveZoneIdSafe(SettingKey.VOTE_RESET_TIMEZONE.get()));
     }
 
-    /** De apelat la onDisable() */
-    public void shutdown() {
-        closeConnectionOnly();
-        dbExecutor.shutdown();
+    public CompletableFuture<Boolean> isEmptyAsync() {
+        return guardedRead(() -> store.isEmpty()).exceptionally(error -> {
+            plugin.getLogger().severe("Failed to check database state: " + describe(error));
+            return false;
+        });
     }
 
+    public boolean isEmpty() {
+        try {
+            return isEmptyAsync().join();
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to check database state (sync): " + e.getMessage());
+            return false;
+        }
+    }
+
+    public CompletableFuture<Void> wipeVotesAsync() {
+        return CompletableFuture.runAsync(() -> {
+            // Votes queued before the wipe are written first, then wiped with the rest.
+            batchWriter.flushAll();
+            try {
+                store.wipe();
+                lastVoteIndex.clearAndMarkComplete();
+                checks.clear();
+                prefetched.clear();
+                SiteVoteIndex sites = siteIndex;
+                if (sites != null) sites.clear();
+                loadLeaderboards();
+                streaks.clear();
+                plugin.getLogger().info("[VoteChecker] All vote records have been wiped.");
+            } catch (VoteStoreException e) {
+                plugin.getLogger().severe("Failed to wipe votes: " + e.getMessage());
+            }
+        }, writeExecutor);
+    }
+
+    /**
+     * Copies all votes from one storage type to another on a dedicated thread with its own
+     * connections, so gameplay reads and writes are not held up. An interrupted copy resumes
+     * from its checkpoint the next time the same migration is started.
+     */
+    public CompletableFuture<Long> migrateAsync(StorageType from, StorageType to, VoteMigrator.ProgressListener progress) {
+        if (from == to) {
+            plugin.getLogger().warning("[VoteChecker] Migration skipped: same database type (" + from + ")");
+            return CompletableFuture.completedFuture(0L);
+        }
+        if (!migrationRunning.compareAndSet(false, true)) {
+            CompletableFuture<Long> busy = new CompletableFuture<>();
+            busy.completeExceptionally(new IllegalStateException("A migration is already running"));
+            return busy;
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            plugin.getLogger().info("[VoteChecker] Starting migration: " + from + " → " + to + " ...");
+
+            VoteStore source = openForMigration(from);
+            VoteStore destination = null;
+            try {
+                destination = openForMigration(to);
+
+                VoteMigrator migrator = new VoteMigrator(plugin.getLogger(), getMigrationCheckpoint(from, to));
+                long resumeCursor = migrator.getResumeCursor();
+                if (resumeCursor > 0) {
+                    plugin.getLogger().info("→ Resuming previous migration at position " + resumeCursor + " ...");
+                }
 
-    private static boolean isDurationFormat(String s) {
-        if (s == null) return false;
-        return s.trim().matches("(?i)^\\s*\\d+\\s*(ms|s|m|h|d)\\s*$");
+                long migrated = migrator.copy(source, destination, progress, migrationExecutor::isShutdown);
+                plugin.getLogger().info("[VoteChecker] Migration complete → " + migrated + " entries ✅");
+                if (to == store.getType()) reloadAfterMigration();
+                return migrated;
+            } catch (VoteStoreException e) {
+                plugin.getLogger().severe("[VoteChecker] Migration failed: " + e.getMessage());
+                throw new CompletionException(e);
+            } finally {
+                closeAfterMigration(source);
+                closeAfterMigration(destination);
+                migrationRunning.set(false);
+            }
+        }, migrationExecutor);
     }
 
-    private static boolean isDailyTimeFormat(String s) {
-        if (s == null) return false;
-        return s.trim().matches("^\\s*\\d{1,2}:\\d{2}\\s*$");
+    /**
+     * Votes were copied into the active store behind the in-memory state's back, so a warm index
+     * could answer "not voted" for players who did vote. The indexes keep their votes but stop
+     * answering "not voted" right away (checks ask the database meanwhile) until warmed again,
+     * and the leaderboards are reloaded; streaks load again on demand.
+     */
+    private void reloadAfterMigration() {
+        lastVoteIndex.markCold();
+        SiteVoteIndex sites = siteIndex;
+        if (sites != null) sites.markIncomplete();
+        prefetched.clear();
+        checks.clear();
+        streaks.clear();
+        try {
+            writeExecutor.execute(() -> {
+                loadLeaderboards();
+                executeRead(this::warmLastVoteIndex);
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down.
+        }
     }
 
-    private static String padDailyTime(String s) {
-        String t = s.trim();
-        String[] parts = t.split(":");
-        int hh = Integer.parseInt(parts[0]);
-        int mm = Integer.parseInt(parts[1]);
-        return String.format("%02d:%02d", hh, mm);
+    /**
+     * The embedded log allows a single writer, so the active one is shared with the migration;
+     * SQL backends get their own connections.
+     */
+    private VoteStore openForMigration(StorageType type) {
+        VoteStore current = store;
+        if (type == StorageType.LOCAL && current.getType() == StorageType.LOCAL) return current;
+
+        VoteStore migrationStore = createStore(type, 1);
+        try {
+            migrationStore.open();
+            migrationStore.migrateSchema();
+        } catch (VoteStoreException e) {
+            migrationStore.close();
+            throw new CompletionException(e);
+        }
+        return migrationStore;
     }
 
-    private static long parseDurationMillis(String s) {
-        String t = s.trim().toLowerCase();
-        String digits = t.replaceAll("[^0-9]", "");
-        if (digits.isEmpty()) return 86_400_000L; // fallback 24h
-        long num = Long.parseLong(digits);
+    private void closeAfterMigration(VoteStore migrationStore) {
+        if (migrationStore != null && migrationStore != store) migrationStore.close();
+    }
 
-        if (t.endsWith("ms")) return num;
-        if (t.endsWith("s"))  return num * 1_000L;
-        if (t.endsWith("m"))  return num * 60_000L;
-        if (t.endsWith("h"))  return num * 3_600_000L;
-        if (t.endsWith("d"))  return num * 86_400_000L;
+    /** Checkpoint file of an interrupted migration between the two types. */
+    public File getMigrationCheckpoint(StorageType from, StorageType to) {
+        return new File(plugin.getDataFolder(), "migrate-" + from.name().toLowerCase() + "-to-" + to.name().toLowerCase() + ".checkpoint");
+    }
 
-        return 86_400_000L; // fallback 24h
+    public void reconnect() {
+        compileVoteWindow();
+        compileVoteSites();
+        leaderboards.unload();
+        streaks.clear();
+        VoteStore previous = store;
+        if (previous != null) previous.close();
+        lastVoteIndex.clear();
+        checks.clear();
+        prefetched.clear();
+        breaker.reset();
+        lastSyncMillis = 0L;
+        connect();
+        if (journal.hasUnacknowledged()) {
+            batchWriter.startReplay();
+        }
     }
 
-    private static long computeLastResetMillis(java.time.LocalTime resetAt, ZoneId zone) {
-        java.time.ZonedDateTime now = java.time.ZonedDateTime.now(zone);
-        java.time.ZonedDateTime todayReset = now.toLocalDate().atTime(resetAt).atZone(zone);
-        java.time.ZonedDateTime lastReset = now.isBefore(todayReset) ? todayReset.minusDays(1) : todayReset;
-        return lastReset.toInstant().toEpochMilli();
+    /** De apelat la onDisable() */
+    public void shutdown() {
+        if (syncTask != null) syncTask.cancel();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SHUTDOWN_FLUSH_SECONDS);
+        writeExecutor.execute(() -> {
+            if (!batchWriter.flushUntil(deadline)) {
+                plugin.getLogger().warning("Not all votes could be stored before shutdown, they stay in the journal and are replayed on the next start.");
+            }
+        });
+        readExecutor.shutdown();
+        writeExecutor.shutdown();
+        migrationExecutor.shutdown(); // a running copy stops after its chunk and keeps its checkpoint
+        try {
+            // Let queued inserts finish before the connections go away.
+            if (!writeExecutor.awaitTermination(SHUTDOWN_FLUSH_SECONDS + 1, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Timed out waiting for pending vote writes to finish.");
+            }
+            readExecutor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        store.close();
+        journal.close();
     }
 
+
     private ZoneId resolveZoneIdSafe(String tzId) {
         try {
             if (tzId != null && !tzId.trim().isEmpty()) {
@@ -348,4 +1178,15 @@ public class VoteDatabaseManager {
         }
         return ZoneId.systemDefault();
     }
+
+    /** Vote state loaded for a player at login: every vote since {@code completeFrom} is known. */
+    private static final class Prefetched {
+        final long completeFrom;
+        final long latestVote;
+
+        Prefetched(long completeFrom, long latestVote) {
+            this.completeFrom = completeFrom;
+            this.latestVote = latestVote;
+        }
+    }
 }
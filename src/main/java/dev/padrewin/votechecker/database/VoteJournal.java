@@ -0,0 +1,257 @@
+package dev.padrewin.votechecker.database;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Local append-only journal of incoming votes.
+ * <p>
+ * Every vote is appended here before it is queued for the database, so a vote survives
+ * database outages, slow commits and restarts. Records are only dropped once the database
+ * confirmed everything that was appended: the file is then truncated back to zero.
+ * <p>
+ * Record layout: {@code [int payloadLength][int crc32][payload]} where the payload is
+ * {@code seq, voteMillis, uuidMsb, uuidLsb, name, service}, with a zero UUID for a vote whose
+ * player was not resolved yet. A torn or corrupt tail
+ * (e.g. after a crash mid-write) is cut off on open.
+ */
+public class VoteJournal {
+
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_PAYLOAD_BYTES = 64 * 1024;
+
+    private final Logger logger;
+    private final File file;
+    private final boolean syncWrites;
+
+    private FileChannel channel;
+    private long nextSeq = 1;
+    private long lastAppendedSeq;
+    private long acknowledgedSeq;
+    private long acknowledgedOffset;
+    private long pendingBytes;
+
+    public VoteJournal(Logger logger, File file, boolean syncWrites) {
+        this.logger = logger;
+        this.file = file;
+        this.syncWrites = syncWrites;
+    }
+
+    /**
+     * Opens the journal and hands every record still waiting for the database to {@code recovered}.
+     *
+     * @return how many records were recovered
+     */
+    public synchronized int open(Consumer<Entry> recovered) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) parent.mkdirs();
+
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        int records = 0;
+        long validEnd = 0;
+        Batch scan;
+        while (!(scan = read(validEnd, 1_000)).records.isEmpty()) {
+            records += scan.records.size();
+            scan.records.forEach(recovered);
+            validEnd = scan.nextOffset;
+            lastAppendedSeq = scan.records.get(scan.records.size() - 1).seq;
+        }
+
+        if (validEnd < channel.size()) {
+            logger.warning("Vote journal had a damaged tail (" + (channel.size() - validEnd) + " bytes), truncating it.");
+            channel.truncate(validEnd);
+        }
+        channel.position(validEnd);
+
+        nextSeq = lastAppendedSeq + 1;
+        acknowledgedSeq = 0;
+        acknowledgedOffset = 0;
+        pendingBytes = validEnd;
+        return records;
+    }
+
+    /**
+     * Appends a vote. Sequential write to the end of the file, no database involved.
+     *
+     * @return the journaled entry; its end offset is passed to {@link #acknowledge} once written
+     */
+    public synchronized Entry append(UUID uuid, String playerName, String serviceName, long voteMillis) throws IOException {
+        ensureOpen();
+        byte[] name = playerName.getBytes(StandardCharsets.UTF_8);
+        byte[] service = serviceName.getBytes(StandardCharsets.UTF_8);
+
+        long seq = nextSeq++;
+        int payloadLength = 8 * 4 + 2 + name.length + 2 + service.length;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payloadLength);
+        buffer.putInt(payloadLength);
+        buffer.putInt(0); // crc, filled below
+        buffer.putLong(seq);
+        buffer.putLong(voteMillis);
+        buffer.putLong(uuid != null ? uuid.getMostSignificantBits() : 0L);
+        buffer.putLong(uuid != null ? uuid.getLeastSignificantBits() : 0L);
+        buffer.putShort((short) name.length);
+        buffer.put(name);
+        buffer.putShort((short) service.length);
+        buffer.put(service);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_BYTES, payloadLength);
+        buffer.putInt(4, (int) crc.getValue());
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (syncWrites) {
+            channel.force(false);
+        }
+
+        lastAppendedSeq = seq;
+        long end = channel.position();
+        pendingBytes = end;
+        return new Entry(seq, end, uuid, playerName, serviceName, voteMillis);
+    }
+
+    /**
+     * Confirms that every record up to {@code seq} is committed in the database.
+     * Once everything appended so far is confirmed, the file is truncated.
+     */
+    public synchronized void acknowledge(long seq, long endOffset) throws IOException {
+        if (seq <= acknowledgedSeq) return;
+        ensureOpen();
+        acknowledgedSeq = seq;
+        acknowledgedOffset = endOffset;
+
+        if (acknowledgedSeq >= lastAppendedSeq) {
+            channel.truncate(0);
+            channel.position(0);
+            acknowledgedOffset = 0;
+            pendingBytes = 0;
+        }
+    }
+
+    /** Offset of the first record not yet confirmed by the database. */
+    public synchronized long getAcknowledgedOffset() {
+        return acknowledgedOffset;
+    }
+
+    public synchronized boolean hasUnacknowledged() {
+        return lastAppendedSeq > acknowledgedSeq;
+    }
+
+    public synchronized long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * Reads up to {@code limit} records starting at {@code offset}.
+     */
+    public synchronized Batch read(long offset, int limit) throws IOException {
+        ensureOpen();
+        List<Entry> records = new ArrayList<>();
+        long position = offset;
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+
+        while (records.size() < limit && position + HEADER_BYTES <= size) {
+            header.clear();
+            if (readFully(header, position) < HEADER_BYTES) break;
+            int payloadLength = header.getInt(0);
+            int expectedCrc = header.getInt(4);
+            if (payloadLength <= 0 || payloadLength > MAX_PAYLOAD_BYTES || position + HEADER_BYTES + payloadLength > size) break;
+
+            ByteBuffer payload = ByteBuffer.allocate(payloadLength);
+            if (readFully(payload, position + HEADER_BYTES) < payloadLength) break;
+
+            CRC32 crc = new CRC32();
+            crc.update(payload.array(), 0, payloadLength);
+            if ((int) crc.getValue() != expectedCrc) break;
+
+            payload.flip();
+            long seq = payload.getLong();
+            long voteMillis = payload.getLong();
+            long msb = payload.getLong();
+            long lsb = payload.getLong();
+            UUID uuid = msb == 0L && lsb == 0L ? null : new UUID(msb, lsb);
+            String name = readString(payload);
+            String service = readString(payload);
+
+            position += HEADER_BYTES + payloadLength;
+            records.add(new Entry(seq, position, uuid, name, service, voteMillis));
+        }
+        return new Batch(records, position);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (channel == null) throw new IOException("Vote journal is not open");
+    }
+
+    private int readFully(ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read < 0) break;
+            total += read;
+        }
+        return total;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public synchronized void close() {
+        if (channel == null) return;
+        try {
+            channel.force(true);
+            channel.close();
+        } catch (IOException e) {
+            logger.warning("Failed to close vote journal: " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    /** One journaled vote. */
+    public static final class Entry {
+        public final long seq;
+        public final long endOffset;
+        public final UUID uuid; // null until the player is resolved on the write lane
+        public final String playerName;
+        public final String serviceName;
+        public final long voteMillis;
+
+        Entry(long seq, long endOffset, UUID uuid, String playerName, String serviceName, long voteMillis) {
+            this.seq = seq;
+            this.endOffset = endOffset;
+            this.uuid = uuid;
+            this.playerName = playerName;
+            this.serviceName = serviceName;
+            this.voteMillis = voteMillis;
+        }
+    }
+
+    /** Records read in one go, plus where the next read should start. */
+    public static final class Batch {
+        public final List<Entry> records;
+        public final long nextOffset;
+
+        Batch(List<Entry> records, long nextOffset) {
+            this.records = records;
+            this.nextOffset = nextOffset;
+        }
+    }
+}
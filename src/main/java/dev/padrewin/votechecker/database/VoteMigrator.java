@@ -0,0 +1,140 @@
+package dev.padrewin.votechecker.database;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Streams all votes from one {@link VoteStore} into another.
+ * <p>
+ * The source is read page by page with its scan cursor (keyset pagination on the row id for SQL,
+ * a file offset for the embedded log) and every page is written with one idempotent
+ * {@link VoteStore#insert}, so votes already present in the destination are skipped instead of
+ * looked up one by one. After every page the cursor is saved in a checkpoint file; an interrupted
+ * run resumes from there. Rolled-up history is copied the same way, page by page with its own
+ * cursor, once all raw votes are done.
+ */
+public class VoteMigrator {
+
+    /** Receives progress while the copy is running. */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long copied, long total, double rowsPerSecond);
+    }
+
+    private static final int CHUNK_SIZE = 5_000;
+    private static final long PROGRESS_INTERVAL_MS = 5_000L;
+
+    private final Logger logger;
+    private final File checkpointFile;
+
+    public VoteMigrator(Logger logger, File checkpointFile) {
+        this.logger = logger;
+        this.checkpointFile = checkpointFile;
+    }
+
+    /** Cursor at which the previous, interrupted run stopped; 0 when starting fresh. */
+    public long getResumeCursor() {
+        return readCheckpoint().cursor;
+    }
+
+    /**
+     * The checkpoint holds the raw vote cursor on its first line and, once the raw votes are
+     * done, the rolled-up history cursor on the second.
+     */
+    private Checkpoint readCheckpoint() {
+        if (!checkpointFile.exists()) return new Checkpoint(0L, null);
+        try {
+            String[] lines = new String(Files.readAllBytes(checkpointFile.toPath()), StandardCharsets.UTF_8).split("\n", 2);
+            long cursor = Long.parseLong(lines[0].trim());
+            return new Checkpoint(cursor, lines.length > 1 ? lines[1] : null);
+        } catch (IOException | NumberFormatException e) {
+            logger.warning("Ignoring unreadable migration checkpoint " + checkpointFile.getName() + ": " + e.getMessage());
+            return new Checkpoint(0L, null);
+        }
+    }
+
+    /**
+     * Copies every vote of {@code source} after the checkpoint into {@code destination}.
+     *
+     * @param cancelled checked between pages; the checkpoint is kept so the copy can resume
+     * @return how many source votes were processed in this run
+     */
+    public long copy(VoteStore source, VoteStore destination, ProgressListener progress, BooleanSupplier cancelled) throws VoteStoreException {
+        Checkpoint checkpoint = readCheckpoint();
+        long cursor = checkpoint.cursor;
+        long total = source.countRecords();
+
+        long copied = 0L;
+        long started = System.currentTimeMillis();
+        long lastReport = started;
+        List<StoredVote> page = new ArrayList<>(CHUNK_SIZE);
+
+        while (!cancelled.getAsBoolean()) {
+            page.clear();
+            long next = source.scan(cursor, CHUNK_SIZE, page);
+            if (next == cursor) break;
+
+            if (!page.isEmpty()) destination.insert(page);
+            cursor = next;
+            saveCheckpoint(cursor, checkpoint.aggregateCursor);
+            copied += page.size();
+
+            long now = System.currentTimeMillis();
+            if (now - lastReport >= PROGRESS_INTERVAL_MS) {
+                lastReport = now;
+                progress.onProgress(copied, total, copied * 1000D / Math.max(1L, now - started));
+            }
+        }
+        if (cancelled.getAsBoolean()) return copied;
+
+        String aggregateCursor = checkpoint.aggregateCursor != null ? checkpoint.aggregateCursor : "";
+        while (!cancelled.getAsBoolean()) {
+            page.clear();
+            String next = source.scanAggregates(aggregateCursor, CHUNK_SIZE, page);
+            if (next.equals(aggregateCursor)) break;
+
+            if (!page.isEmpty()) destination.insert(page);
+            aggregateCursor = next;
+            saveCheckpoint(cursor, aggregateCursor);
+        }
+        if (cancelled.getAsBoolean()) return copied;
+
+        clearCheckpoint();
+        return copied;
+    }
+
+    private void saveCheckpoint(long cursor, String aggregateCursor) {
+        String content = aggregateCursor != null ? cursor + "\n" + aggregateCursor : Long.toString(cursor);
+        File tmp = new File(checkpointFile.getPath() + ".tmp");
+        try {
+            Files.write(tmp.toPath(), content.getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Not fatal: a resumed run re-copies a few pages, which the destination skips.
+            logger.warning("Failed to save migration checkpoint: " + e.getMessage());
+        }
+    }
+
+    private void clearCheckpoint() {
+        if (checkpointFile.exists() && !checkpointFile.delete()) {
+            logger.warning("Failed to delete migration checkpoint " + checkpointFile.getName());
+        }
+    }
+
+    private static final class Checkpoint {
+        final long cursor;
+        final String aggregateCursor; // null while raw votes are still being copied
+
+        Checkpoint(long cursor, String aggregateCursor) {
+            this.cursor = cursor;
+            this.aggregateCursor = aggregateCursor;
+        }
+    }
+}
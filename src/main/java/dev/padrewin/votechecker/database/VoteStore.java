@@ -0,0 +1,166 @@
+package dev.padrewin.votechecker.database;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+
+/**
+ * Storage backend for votes.
+ * <p>
+ * {@link VoteDatabaseManager} owns the threads: writes ({@link #insert}, {@link #wipe} and the
+ * background steps) are only called from the single write lane, reads from any reader thread.
+ */
+public interface VoteStore {
+
+    /** Receives one player's latest vote time. */
+    @FunctionalInterface
+    interface LatestVoteSink {
+        void accept(UUID uuid, long voteMillis);
+    }
+
+    /** Receives a player's latest vote on one service. */
+    @FunctionalInterface
+    interface SiteVoteSink {
+        void accept(UUID uuid, String serviceName, long voteMillis);
+    }
+
+    /** Receives a player's number of votes and a name they voted with. */
+    @FunctionalInterface
+    interface VoteCountSink {
+        void accept(UUID uuid, String playerName, long votes);
+    }
+
+    StorageType getType();
+
+    /** Human readable description for the startup log. */
+    String getDescription();
+
+    /** Connects / opens files; quick enough for startup. */
+    void open() throws VoteStoreException;
+
+    /**
+     * Brings the schema up to date after {@link #open}. May take long on a large table
+     * (deduplication, index builds), so it is called on the write lane, before any insert.
+     */
+    default void migrateSchema() throws VoteStoreException {
+    }
+
+    void close();
+
+    /**
+     * Stores the votes atomically. Must be idempotent: a vote that is already stored
+     * (same player, service and time) is skipped, so journal replays never double count.
+     *
+     * @return the votes that were actually new, in order
+     */
+    List<StoredVote> insert(List<StoredVote> votes) throws VoteStoreException;
+
+    /**
+     * Latest vote time of a player, or 0 if none. When nothing is found for the UUID since
+     * {@code since}, votes stored under the same name with another UUID are considered too.
+     */
+    long findLatestVote(UUID uuid, String playerName, long since) throws VoteStoreException;
+
+    /**
+     * Latest vote time of each of the players who voted at or after {@code since}, by UUID only,
+     * in as few queries as possible. Players without such a vote are not reported.
+     */
+    void findLatestVotes(Collection<UUID> uuids, long since, LatestVoteSink sink) throws VoteStoreException;
+
+    /** Latest vote per service of each of the players, at or after {@code since}, by UUID only. */
+    void findLatestSiteVotes(Collection<UUID> uuids, long since, SiteVoteSink sink) throws VoteStoreException;
+
+    /** Latest vote time of every player who voted at or after {@code since}. */
+    void loadLatestVotes(long since, LatestVoteSink sink) throws VoteStoreException;
+
+    /**
+     * Latest vote per service of one player at or after {@code since}.
+     * Votes stored under the same name with another UUID are reported for {@code uuid},
+     * so a service may be reported more than once; the latest time counts.
+     */
+    void findLatestSiteVotes(UUID uuid, String playerName, long since, SiteVoteSink sink) throws VoteStoreException;
+
+    /** Latest vote per player and service of every vote at or after {@code since}. */
+    void loadLatestSiteVotes(long since, SiteVoteSink sink) throws VoteStoreException;
+
+    /** UUID the name most recently voted with, or null. */
+    UUID findUuidByName(String playerName) throws VoteStoreException;
+
+    /** All-time number of votes of a player, including rolled-up history. */
+    long countVotes(UUID uuid) throws VoteStoreException;
+
+    /**
+     * Number of votes of every player who voted at or after {@code since} (0 = all time),
+     * including rolled-up history, one call per player.
+     */
+    void loadVoteCounts(long since, VoteCountSink sink) throws VoteStoreException;
+
+    /**
+     * Time of every vote of a player, in no particular order. Rolled-up days are reported
+     * once, with the time of their last vote.
+     */
+    void findVoteTimes(UUID uuid, LongConsumer sink) throws VoteStoreException;
+
+    /** Number of raw vote records, used for migration progress. */
+    long countRecords() throws VoteStoreException;
+
+    boolean isEmpty() throws VoteStoreException;
+
+    void wipe() throws VoteStoreException;
+
+    /**
+     * Reads up to {@code limit} raw votes after {@code cursor} (0 = from the start), in storage order.
+     *
+     * @return the cursor to continue from; unchanged when nothing was read
+     */
+    long scan(long cursor, int limit, List<StoredVote> out) throws VoteStoreException;
+
+    /**
+     * Reads up to {@code limit} records of rolled-up history after {@code cursor} (empty = from
+     * the start), if the backend keeps any apart from the raw votes.
+     *
+     * @return the cursor to continue from; unchanged when nothing was read
+     */
+    default String scanAggregates(String cursor, int limit, List<StoredVote> out) throws VoteStoreException {
+        return cursor;
+    }
+
+    /** True when other servers may write to the same storage (their votes need syncing). */
+    default boolean isShared() {
+        return false;
+    }
+
+    /** Rows left for {@link #upgradeStep}. */
+    default long countPendingUpgrade() throws VoteStoreException {
+        return 0L;
+    }
+
+    /**
+     * Upgrades the data written by older versions at or after {@code sinceMillis} right away,
+     * so lookups see it before {@link #upgradeStep} gets through the rest.
+     *
+     * @return how much was upgraded
+     */
+    default int upgradeRecent(long sinceMillis, int chunkSize) throws VoteStoreException {
+        return 0;
+    }
+
+    /**
+     * Upgrades one chunk of data written by older versions.
+     *
+     * @return how much was upgraded, 0 once done
+     */
+    default int upgradeStep(int chunkSize) throws VoteStoreException {
+        return 0;
+    }
+
+    /**
+     * Rolls up one chunk of raw votes older than {@code cutoffMillis}.
+     *
+     * @return how many raw votes were rolled up, 0 once nothing is left (or not supported)
+     */
+    default int compactStep(long cutoffMillis, int chunkSize) throws VoteStoreException {
+        return 0;
+    }
+}
@@ -0,0 +1,17 @@
+package dev.padrewin.votechecker.database;
+
+/** A {@link VoteStore} operation failed; wraps the backend's own exception. */
+public class VoteStoreException extends Exception {
+
+    public VoteStoreException(String message) {
+        super(message);
+    }
+
+    public VoteStoreException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public VoteStoreException(Throwable cause) {
+        super(cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,85 @@
+package dev.padrewin.votechecker.hook;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, lock-free admission table for intercepted commands.
+ * <p>
+ * A player may have at most one vote check pending; further blocked commands while it runs
+ * are dropped. Deny messages are collapsed to one per player per cooldown. Players are keyed
+ * by a 64-bit fingerprint of their UUID in open-addressing slots claimed with CAS; when all
+ * probe slots are taken the command is admitted untracked rather than refused.
+ */
+final class CommandAdmission {
+
+    private static final int SLOTS = 4096;
+    private static final int PROBES = 8;
+    private static final long DENY_COOLDOWN_MS = 1_000L;
+
+    private final AtomicLongArray pending = new AtomicLongArray(SLOTS);
+    private final AtomicLongArray denyKeys = new AtomicLongArray(SLOTS);
+    private final AtomicLongArray denyTimes = new AtomicLongArray(SLOTS);
+
+    /**
+     * @return false if a check for this player is already pending
+     */
+    boolean tryAcquire(UUID uuid) {
+        long key = fingerprint(uuid);
+        int home = home(key);
+
+        for (int i = 0; i < PROBES; i++) {
+            if (pending.get(slot(home, i)) == key) return false;
+        }
+        for (int i = 0; i < PROBES; i++) {
+            int slot = slot(home, i);
+            if (pending.get(slot) == 0L && pending.compareAndSet(slot, 0L, key)) {
+                // Lost a race against another claim for the same player in a different slot.
+                for (int j = 0; j < PROBES; j++) {
+                    if (j != i && pending.get(slot(home, j)) == key) {
+                        pending.compareAndSet(slot, key, 0L);
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return true;
+    }
+
+    void release(UUID uuid) {
+        long key = fingerprint(uuid);
+        int home = home(key);
+        for (int i = 0; i < PROBES; i++) {
+            if (pending.compareAndSet(slot(home, i), key, 0L)) return;
+        }
+    }
+
+    /**
+     * @return true if a deny message should be sent now, false if one was sent very recently
+     */
+    boolean shouldSendDeny(UUID uuid) {
+        long key = fingerprint(uuid);
+        int slot = home(key);
+        long now = System.currentTimeMillis();
+        if (denyKeys.get(slot) == key && now - denyTimes.get(slot) < DENY_COOLDOWN_MS) return false;
+        denyTimes.set(slot, now);
+        denyKeys.set(slot, key);
+        return true;
+    }
+
+    private static long fingerprint(UUID uuid) {
+        long h = uuid.getMostSignificantBits() * 0x9E3779B97F4A7C15L ^ uuid.getLeastSignificantBits();
+        h = (h ^ (h >>> 31)) * 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 29;
+        return h == 0L ? 1L : h;
+    }
+
+    private static int home(long key) {
+        return (int) (key ^ (key >>> 32)) & (SLOTS - 1);
+    }
+
+    private static int slot(int home, int probe) {
+        return (home + probe) & (SLOTS - 1);
+    }
+}
@@ -15,54 +15,68 @@ import org.bukkit.event.server.ServerCommandEvent;
 
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 public class CommandInterceptor implements Listener {
 
-    private static final List<String> BLOCKED_COMMANDS = new CopyOnWriteArrayList<>();
+    private static volatile CommandMatcher blocked = CommandMatcher.EMPTY;
+    private final CommandAdmission admission = new CommandAdmission();
     private static final ThreadLocal<Boolean> IS_DELUXE_OPEN = new ThreadLocal<>(); // Flag
 
     public static void register() {
         Bukkit.getPluginManager().registerEvents(new CommandInterceptor(), VoteChecker.getInstance());
         reloadBlocked();
+        // Aliases of plugins enabled after us are only in the command map once the server is up.
+        Bukkit.getScheduler().runTask(VoteChecker.getInstance(), CommandInterceptor::reloadBlocked);
         VoteChecker.getInstance().getLogger().info("[VoteChecker] Command interceptor activated (DeluxeMenus open_command fixed).");
     }
 
     public static void reloadBlocked() {
-        BLOCKED_COMMANDS.clear();
-        List<String> blocked = SettingKey.BLOCKED_COMMANDS.get();
-        if (blocked != null) {
-            for (String cmd : blocked) {
-                if (cmd == null || cmd.trim().isEmpty()) continue;
-                String clean = cmd.trim();
-                if (clean.startsWith("/")) clean = clean.substring(1);
-                BLOCKED_COMMANDS.add(clean.split(" ")[0].toLowerCase(Locale.ROOT));
-            }
-        }
+        List<String> entries = SettingKey.BLOCKED_COMMANDS.get();
+        blocked = entries == null ? CommandMatcher.EMPTY : CommandMatcher.build(entries, Bukkit.getCommandMap());
         if (SettingKey.DEBUG.get()) {
-            VoteChecker.getInstance().getLogger().info("[DEBUG] Blocked commands: " + BLOCKED_COMMANDS);
+            VoteChecker.getInstance().getLogger().info("[DEBUG] Blocked commands: " + blocked.describe());
         }
     }
 
     // === 1. Comenzi din chat + open_command (DeluxeMenus) ===
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onPlayerCommand(PlayerCommandPreprocessEvent event) {
-        Player player = event.getPlayer();
         String message = event.getMessage();
-        String baseCmd = message.substring(1).split(" ")[0].toLowerCase(Locale.ROOT);
-
-        if (!BLOCKED_COMMANDS.contains(baseCmd)) return;
+        int end = blocked.match(message, 1);
+        if (end < 0) return;
         if (!SettingKey.ENABLE_PLUGIN.get()) return;
+
+        Player player = event.getPlayer();
+        String baseCmd = message.substring(1, end).toLowerCase(Locale.ROOT);
         if (player.hasPermission("votechecker.bypass")) return;
 
         boolean isDeluxeOpen = Boolean.TRUE.equals(IS_DELUXE_OPEN.get());
         IS_DELUXE_OPEN.remove(); // Reset flag
 
-        debug("[INTERCEPT] " + player.getName() + " → " + message + (isDeluxeOpen ? " [DeluxeMenus open_command]" : ""));
-
+        // Known status: decide now, the command runs in this very event or is refused.
+        Boolean known = VoteUtil.getCachedVoteStatus(player);
+        if (known == Boolean.TRUE) {
+            debug("[ALLOW] " + player.getName() + " has voted → /" + baseCmd);
+            return;
+        }
         event.setCancelled(true);
+        if (known == Boolean.FALSE) {
+            sendNotVotedMessage(player, baseCmd);
+            debug("[BLOCK] " + player.getName() + " tried /" + baseCmd + " without voting");
+            return;
+        }
 
-        VoteUtil.hasVotedToday(player).thenAccept(hasVoted -> {
+        // Unknown: hold the command back, ask the database and replay it if allowed.
+        // One check per player at a time; repeats while it runs are dropped.
+        if (!admission.tryAcquire(player.getUniqueId())) {
+            debug("[COLLAPSE] " + player.getName() + " → " + message + " (check already pending)");
+            return;
+        }
+        debug("[INTERCEPT] " + player.getName() + " → " + message + (isDeluxeOpen ? " [DeluxeMenus open_command]" : ""));
+
+        VoteUtil.hasVotedToday(player).whenComplete((hasVoted, error) -> {
+            admission.release(player.getUniqueId());
+            if (error != null) return;
             if (hasVoted) {
                 debug("[ALLOW] " + player.getName() + " has voted → " + (isDeluxeOpen ? "opening menu" : "executing") + " /" + baseCmd);
                 runLater(() -> {
@@ -93,15 +107,33 @@ public class CommandInterceptor implements Listener {
         String menuCmd = command.substring(command.indexOf(']') + 1).trim();
         if (menuCmd.isEmpty()) return;
 
-        String baseCmd = menuCmd.split(" ")[0].toLowerCase(Locale.ROOT);
-        if (!BLOCKED_COMMANDS.contains(baseCmd)) return;
+        int end = blocked.match(menuCmd, 0);
+        if (end < 0) return;
         if (!SettingKey.ENABLE_PLUGIN.get()) return;
+        String baseCmd = menuCmd.substring(0, end).toLowerCase(Locale.ROOT);
         if (player.hasPermission("votechecker.bypass")) return;
 
+        Boolean known = VoteUtil.getCachedVoteStatus(player);
+        if (known == Boolean.TRUE) {
+            debug("[ALLOW] " + player.getName() + " has voted → click /" + menuCmd);
+            return;
+        }
         event.setCancelled(true);
+        if (known == Boolean.FALSE) {
+            sendNotVotedMessage(player, baseCmd);
+            debug("[BLOCK] " + player.getName() + " tried click /" + menuCmd + " without voting");
+            return;
+        }
+
+        if (!admission.tryAcquire(player.getUniqueId())) {
+            debug("[COLLAPSE] " + player.getName() + " → [DeluxeMenus click] /" + menuCmd + " (check already pending)");
+            return;
+        }
         debug("[INTERCEPT] " + player.getName() + " → [DeluxeMenus click] /" + menuCmd);
 
-        VoteUtil.hasVotedToday(player).thenAccept(hasVoted -> {
+        VoteUtil.hasVotedToday(player).whenComplete((hasVoted, error) -> {
+            admission.release(player.getUniqueId());
+            if (error != null) return;
             if (hasVoted) {
                 debug("[ALLOW] " + player.getName() + " has voted → executing click /" + menuCmd);
                 runLater(() -> Bukkit.dispatchCommand(Bukkit.getConsoleSender(), "[player] " + player.getName() + " " + menuCmd));
@@ -123,12 +155,21 @@ public class CommandInterceptor implements Listener {
         Bukkit.getScheduler().runTask(VoteChecker.getInstance(), task);
     }
 
+    /** Sends the deny message, at most once per player per second however fast commands come in. */
     private void sendNotVotedMessage(Player player, String command) {
+        if (!admission.shouldSendDeny(player.getUniqueId())) return;
+
         LocaleManager lm = VoteChecker.getInstance().getManager(LocaleManager.class);
         String msg = lm.getLocaleMessage("votechecker-not-voted")
                 .replace("{player}", player.getName())
                 .replace("{command}", "/" + command);
         player.sendMessage(lm.getLocaleMessage("prefix") + msg);
+
+        VoteUtil.getOpenSites(player).thenAccept(open -> {
+            if (open.isEmpty()) return;
+            player.sendMessage(lm.getLocaleMessage("prefix") + lm.getLocaleMessage("votechecker-open-sites")
+                    .replace("{sites}", String.join(", ", open)));
+        });
     }
 
     private void debug(String msg) {
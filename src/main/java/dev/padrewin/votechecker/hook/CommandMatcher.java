@@ -0,0 +1,203 @@
+package dev.padrewin.votechecker.hook;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Token trie of blocked command paths such as {@code spawn} or {@code crate open vote}.
+ * <p>
+ * A path blocks itself and everything below it, so {@code crate open vote} also blocks
+ * {@code /crate open vote 5} but not {@code /crate open daily}. Root commands are expanded
+ * to all their aliases and namespaced labels from the command map when built.
+ * Matching walks the message in place: tokens are hashed and compared without substrings.
+ */
+final class CommandMatcher {
+
+    static final CommandMatcher EMPTY = new CommandMatcher(new Node());
+
+    private final Node root;
+
+    private CommandMatcher(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * @param commandMap used to resolve aliases, may be null
+     */
+    static CommandMatcher build(Collection<String> entries, CommandMap commandMap) {
+        Node root = new Node();
+        for (String entry : entries) {
+            if (entry == null) continue;
+            String clean = entry.trim();
+            if (clean.startsWith("/")) clean = clean.substring(1);
+            String[] tokens = clean.toLowerCase(Locale.ROOT).split("\\s+");
+            if (tokens.length == 0 || tokens[0].isEmpty()) continue;
+
+            for (String label : labelsOf(tokens[0], commandMap)) {
+                Node node = root.childOrCreate(label);
+                for (int i = 1; i < tokens.length; i++) {
+                    node = node.childOrCreate(tokens[i]);
+                }
+                node.blocked = true;
+            }
+        }
+        return new CommandMatcher(root);
+    }
+
+    /** The label itself plus every label the command map knows for the same command. */
+    private static Set<String> labelsOf(String label, CommandMap commandMap) {
+        Set<String> labels = new LinkedHashSet<>();
+        labels.add(label);
+        if (commandMap == null) return labels;
+
+        Command command = commandMap.getCommand(label);
+        if (command == null) return labels;
+        labels.add(command.getName().toLowerCase(Locale.ROOT));
+        for (String alias : command.getAliases()) {
+            labels.add(alias.toLowerCase(Locale.ROOT));
+        }
+        for (Map.Entry<String, Command> known : commandMap.getKnownCommands().entrySet()) {
+            if (known.getValue() == command) labels.add(known.getKey().toLowerCase(Locale.ROOT));
+        }
+        return labels;
+    }
+
+    boolean isEmpty() {
+        return root.children == null;
+    }
+
+    /**
+     * Matches the command in {@code message} starting at {@code from} (after the slash).
+     * An unknown {@code namespace:label} root is retried as plain {@code label}.
+     *
+     * @return the index right after the blocked path, or -1 if the command is not blocked
+     */
+    int match(String message, int from) {
+        int length = message.length();
+        int i = from;
+        Node node = root;
+
+        while (node.children != null) {
+            while (i < length && message.charAt(i) == ' ') i++;
+            if (i >= length) return -1;
+
+            int start = i;
+            int hash = 0;
+            int colon = -1;
+            for (; i < length; i++) {
+                char c = message.charAt(i);
+                if (c == ' ') break;
+                if (c == ':' && colon < 0) colon = i;
+                hash = 31 * hash + Character.toLowerCase(c);
+            }
+
+            Node next = node.children.get(message, start, i, hash);
+            if (next == null && node == root && colon >= 0) {
+                next = node.children.get(message, colon + 1, i, hash(message, colon + 1, i));
+            }
+            if (next == null) return -1;
+            if (next.blocked) return i;
+            node = next;
+        }
+        return -1;
+    }
+
+    /** Blocked paths, for debug output. */
+    List<String> describe() {
+        List<String> out = new ArrayList<>();
+        root.collect("", out);
+        return out;
+    }
+
+    private static int hash(CharSequence s, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + Character.toLowerCase(s.charAt(i));
+        }
+        return hash;
+    }
+
+    private static final class Node {
+        TokenTable children;
+        boolean blocked;
+
+        Node childOrCreate(String token) {
+            if (children == null) children = new TokenTable();
+            return children.getOrCreate(token);
+        }
+
+        void collect(String prefix, List<String> out) {
+            if (blocked) out.add(prefix);
+            if (children == null) return;
+            for (int i = 0; i < children.keys.length; i++) {
+                String key = children.keys[i];
+                if (key != null) children.values[i].collect(prefix.isEmpty() ? key : prefix + " " + key, out);
+            }
+        }
+    }
+
+    /** Open-addressing map from lowercase token to node, looked up by message region. */
+    private static final class TokenTable {
+        String[] keys = new String[8];
+        int[] hashes = new int[8];
+        Node[] values = new Node[8];
+        int size;
+
+        Node get(String message, int start, int end, int hash) {
+            int mask = keys.length - 1;
+            int length = end - start;
+            for (int slot = spread(hash) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+                String key = keys[slot];
+                if (hashes[slot] == hash && key.length() == length && key.regionMatches(true, 0, message, start, length)) {
+                    return values[slot];
+                }
+            }
+            return null;
+        }
+
+        Node getOrCreate(String token) {
+            int hash = hash(token, 0, token.length());
+            Node existing = get(token, 0, token.length(), hash);
+            if (existing != null) return existing;
+
+            if ((size + 1) * 2 > keys.length) resize();
+            Node node = new Node();
+            insert(token, hash, node);
+            size++;
+            return node;
+        }
+
+        private void insert(String key, int hash, Node node) {
+            int mask = keys.length - 1;
+            int slot = spread(hash) & mask;
+            while (keys[slot] != null) slot = (slot + 1) & mask;
+            keys[slot] = key;
+            hashes[slot] = hash;
+            values[slot] = node;
+        }
+
+        private void resize() {
+            String[] oldKeys = keys;
+            int[] oldHashes = hashes;
+            Node[] oldValues = values;
+            keys = new String[oldKeys.length * 2];
+            hashes = new int[oldKeys.length * 2];
+            values = new Node[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) insert(oldKeys[i], oldHashes[i], oldValues[i]);
+            }
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
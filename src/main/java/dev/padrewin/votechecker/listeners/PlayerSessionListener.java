@@ -0,0 +1,76 @@
+package dev.padrewin.votechecker.listeners;
+
+import dev.padrewin.votechecker.VoteChecker;
+import dev.padrewin.votechecker.cache.LastVoteIndex;
+import dev.padrewin.votechecker.setting.SettingKey;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class PlayerSessionListener implements Listener {
+
+    // Longest the login thread waits for the prefetch; a slower one still finishes in the background.
+    private static final long PREFETCH_WAIT_MS = 2_000L;
+
+    private final VoteChecker plugin;
+
+    public PlayerSessionListener(VoteChecker plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Runs on the login thread, so waiting here costs no tick: the vote state is in memory
+     * before the player spawns, and the first blocked command or scoreboard render is not cold.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+
+        try {
+            plugin.getDatabase().prefetchAsync(event.getUniqueId(), event.getName())
+                    .get(PREFETCH_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            if (SettingKey.DEBUG.get()) {
+                plugin.getLogger().warning("[DEBUG] Vote prefetch for " + event.getName() + " did not finish in time.");
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        plugin.getDatabase().getNameResolver().put(player.getName(), player.getUniqueId());
+
+        // Not prefetched (e.g. after a reload) and outside the warmed window: load the entry lazily.
+        if (!plugin.getDatabase().isPrefetched(player.getUniqueId())
+                && plugin.getDatabase().getLastVoteIndex().getLastVote(player.getUniqueId()) == LastVoteIndex.MISSING) {
+            plugin.getDatabase().loadLastVoteAsync(player.getUniqueId(), player.getName());
+        }
+    }
+
+    /**
+     * Keeps the prefetched state for a grace period, so a quick reconnect stays warm.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        long graceTicks = Math.max(0, SettingKey.CACHE_QUIT_GRACE_SECONDS.get()) * 20L;
+        Bukkit.getScheduler().runTaskLater(plugin, () -> {
+            if (Bukkit.getPlayer(uuid) == null) {
+                plugin.getDatabase().evictPrefetched(uuid);
+            }
+        }, graceTicks);
+    }
+}
@@ -4,12 +4,11 @@ import com.vexsoftware.votifier.model.Vote;
 import com.vexsoftware.votifier.model.VotifierEvent;
 import dev.padrewin.votechecker.VoteChecker;
 import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.UUID;
 
 public class VoteListener implements Listener {
@@ -27,16 +26,30 @@ public class VoteListener implements Listener {
 
         if (name == null || name.isBlank()) return;
 
-        Player player = Bukkit.getPlayerExact(name);
-        UUID uuid = player != null ? player.getUniqueId() : Bukkit.getOfflinePlayer(name).getUniqueId();
-
         String service = vote.getServiceName() != null ? vote.getServiceName() : "unknown";
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        long voteMillis = System.currentTimeMillis();
 
-        plugin.getDatabase().addVoteAsync(uuid, name, service, timestamp);
+        // Journaled right away; a UUID not known in memory is looked up on the write lane before the vote is stored.
+        UUID uuid = resolveUuid(name);
+        plugin.getDatabase().addVoteAsync(uuid, name, service, voteMillis);
 
         if (plugin.getConfig().getBoolean("debug")) {
-            plugin.getLogger().info("[DEBUG] Logged vote for " + name + " (" + uuid + ") from " + service);
+            plugin.getLogger().info("[DEBUG] Logged vote for " + name + " (" + (uuid != null ? uuid : "UUID pending") + ") from " + service);
         }
     }
+
+    /**
+     * Online player, then names seen before (joins, earlier votes), then the server's user cache;
+     * null when the name is not known in memory.
+     */
+    private UUID resolveUuid(String name) {
+        Player player = Bukkit.getPlayerExact(name);
+        if (player != null) return player.getUniqueId();
+
+        UUID cached = plugin.getDatabase().getNameResolver().getCached(name);
+        if (cached != null) return cached;
+
+        OfflinePlayer known = Bukkit.getOfflinePlayerIfCached(name);
+        return known != null ? known.getUniqueId() : null;
+    }
 }
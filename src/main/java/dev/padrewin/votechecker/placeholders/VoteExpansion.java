@@ -1,24 +1,59 @@
 package dev.padrewin.votechecker.placeholders;
 
 import dev.padrewin.votechecker.VoteChecker;
+import dev.padrewin.votechecker.cache.RefreshingCache;
+import dev.padrewin.votechecker.cache.VoteLeaderboard;
+import dev.padrewin.votechecker.cache.VoteStreaks;
+import dev.padrewin.votechecker.setting.SettingKey;
 import dev.padrewin.votechecker.util.VoteUtil;
+import dev.padrewin.votechecker.window.LeaderboardPeriod;
+import dev.padrewin.votechecker.window.RollingWindow;
+import dev.padrewin.votechecker.window.VoteWindow;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 public class VoteExpansion extends PlaceholderExpansion {
 
-    private final VoteChecker plugin;
-    private final Map<UUID, CachedVote> cache = new HashMap<>();
     private static final long CACHE_TIME = 30000; // 30 seconds cache
+    private static final long REFRESH_AFTER = CACHE_TIME * 4 / 5; // refreshed in the background before that
+    private static final long BULK_REFRESH_TICKS = CACHE_TIME / 3 / 50; // online players, well before REFRESH_AFTER
+    private static final int MAX_ENTRIES = 5000;
+
+    private final VoteChecker plugin;
+    private final RefreshingCache<Boolean> votedCache;
+    private final RefreshingCache<List<String>> sitesCache;
 
     public VoteExpansion(VoteChecker plugin) {
         this.plugin = plugin;
+        this.votedCache = new RefreshingCache<>(VoteUtil::hasVotedToday, REFRESH_AFTER, CACHE_TIME, MAX_ENTRIES);
+        this.sitesCache = new RefreshingCache<>(VoteUtil::getOpenSites, REFRESH_AFTER, CACHE_TIME, MAX_ENTRIES);
+
+        // A new vote changes both answers: drop them right away.
+        plugin.getDatabase().addVoteListener(uuid -> {
+            votedCache.invalidate(uuid);
+            sitesCache.invalidate(uuid);
+        });
+
+        // Online players are refreshed together, in one bulk check instead of one per player.
+        Bukkit.getScheduler().runTaskTimer(plugin, this::refreshOnlinePlayers, BULK_REFRESH_TICKS, BULK_REFRESH_TICKS);
+    }
+
+    private void refreshOnlinePlayers() {
+        List<UUID> online = new ArrayList<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            online.add(player.getUniqueId());
+        }
+        if (online.isEmpty()) return;
+
+        VoteUtil.hasVotedToday(online).thenAccept(statuses -> statuses.forEach(votedCache::put));
     }
 
     @Override
@@ -48,6 +83,11 @@ public class VoteExpansion extends PlaceholderExpansion {
 
     @Override
     public String onRequest(OfflinePlayer player, @NotNull String identifier) {
+        String lower = identifier.toLowerCase();
+        if (lower.startsWith("top_")) {
+            return onTopRequest(lower.substring(4));
+        }
+
         if (player == null) {
             return "0";
         }
@@ -59,37 +99,115 @@ public class VoteExpansion extends PlaceholderExpansion {
             return "0";
         }
 
-        switch (identifier.toLowerCase()) {
+        switch (lower) {
             case "has_voted":
-                // Check cache first
-                CachedVote cached = cache.get(uuid);
-                if (cached != null && System.currentTimeMillis() - cached.timestamp < CACHE_TIME) {
-                    return cached.hasVoted ? "1" : "0";
+                // Known in memory (e.g. prefetched at login): answer right away
+                Boolean known = plugin.getDatabase().getCachedVoteStatus(uuid);
+                if (known != null) {
+                    return known ? "1" : "0";
                 }
 
-                // Query async and cache result (works for both online and offline players)
-                VoteUtil.hasVotedToday(uuid, playerName).thenAccept(voted -> {
-                    cache.put(uuid, new CachedVote(voted, System.currentTimeMillis()));
-                }).exceptionally(ex -> {
-                    plugin.getLogger().warning("Error checking vote status for " + playerName + ": " + ex.getMessage());
-                    return null;
-                });
+                // Otherwise the cached answer, refreshed in the background
+                return votedCache.get(uuid, playerName, Boolean.FALSE) ? "1" : "0";
+
+            case "open_sites":
+                return String.join(", ", sitesCache.get(uuid, playerName, Collections.emptyList()));
+
+            case "open_sites_count":
+                return String.valueOf(sitesCache.get(uuid, playerName, Collections.emptyList()).size());
+
+            case "streak": {
+                VoteStreaks.Streak streak = plugin.getDatabase().getStreak(uuid);
+                return String.valueOf(streak != null ? streak.getCurrent(System.currentTimeMillis()) : 0);
+            }
+
+            case "best_streak": {
+                VoteStreaks.Streak streak = plugin.getDatabase().getStreak(uuid);
+                return String.valueOf(streak != null ? streak.getBest() : 0);
+            }
 
-                // Return cached value or default
-                return cached != null ? (cached.hasVoted ? "1" : "0") : "0";
+            case "votes_month":
+                return String.valueOf(plugin.getDatabase().getLeaderboard(LeaderboardPeriod.MONTHLY).getVotes(uuid));
+
+            case "votes_total":
+                return String.valueOf(plugin.getDatabase().getLeaderboard(LeaderboardPeriod.ALLTIME).getVotes(uuid));
+
+            case "next_vote_in":
+                return formatUntil(plugin.getDatabase().getVoteExpiry(uuid));
+
+            case "window_ends": {
+                // A rolling window has no common end, it ends with the player's own vote.
+                VoteWindow window = plugin.getDatabase().getVoteWindow();
+                return window instanceof RollingWindow
+                        ? formatUntil(plugin.getDatabase().getVoteExpiry(uuid))
+                        : formatUntil(window.nextExpiry(System.currentTimeMillis()));
+            }
+
+            case "rank":
+                return String.valueOf(plugin.getDatabase().getLeaderboard(LeaderboardPeriod.ALLTIME).getRank(uuid));
 
             default:
+                if (lower.startsWith("next_vote_in_")) {
+                    return formatUntil(plugin.getDatabase().getSiteVoteExpiry(uuid, lower.substring(13)));
+                }
+                if (lower.startsWith("rank_")) {
+                    LeaderboardPeriod period = LeaderboardPeriod.fromNameOrNull(lower.substring(5));
+                    return period != null ? String.valueOf(plugin.getDatabase().getLeaderboard(period).getRank(uuid)) : null;
+                }
                 return null;
         }
     }
 
-    private static class CachedVote {
-        final boolean hasVoted;
-        final long timestamp;
+    /**
+     * Time left until {@code expiryMillis}, e.g. {@code 5h 12m 3s}; {@code 0s} once passed, empty when unknown.
+     */
+    private static String formatUntil(long expiryMillis) {
+        if (expiryMillis < 0) return "";
+        long seconds = Math.max(0L, expiryMillis - System.currentTimeMillis() + 999L) / 1000L;
+        if (seconds == 0L) return "0s";
+
+        StringBuilder out = new StringBuilder(16);
+        appendUnit(out, seconds / 86_400L, 'd');
+        appendUnit(out, seconds / 3_600L % 24L, 'h');
+        appendUnit(out, seconds / 60L % 60L, 'm');
+        appendUnit(out, seconds % 60L, 's');
+        return out.toString();
+    }
 
-        CachedVote(boolean hasVoted, long timestamp) {
-            this.hasVoted = hasVoted;
-            this.timestamp = timestamp;
+    private static void appendUnit(StringBuilder out, long amount, char unit) {
+        if (amount == 0L) return;
+        if (out.length() > 0) out.append(' ');
+        out.append(amount).append(unit);
+    }
+
+    /**
+     * {@code top_<n>_name|votes} (all time) or {@code top_<period>_<n>_name|votes}, read from the in-memory leaderboards.
+     */
+    private String onTopRequest(String request) {
+        String[] parts = request.split("_");
+        if (parts.length < 2 || parts.length > 3) return null;
+
+        LeaderboardPeriod period = LeaderboardPeriod.ALLTIME;
+        if (parts.length == 3) {
+            period = LeaderboardPeriod.fromNameOrNull(parts[0]);
+            if (period == null) return null;
+        }
+
+        int position;
+        try {
+            position = Integer.parseInt(parts[parts.length - 2]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        VoteLeaderboard.Entry entry = plugin.getDatabase().getLeaderboard(period).getEntry(position);
+        switch (parts[parts.length - 1]) {
+            case "name":
+                return entry != null && entry.getName() != null ? entry.getName() : SettingKey.LEADERBOARD_EMPTY_NAME.get();
+            case "votes":
+                return entry != null ? String.valueOf(entry.getVotes()) : "0";
+            default:
+                return null;
         }
     }
-}
\ No newline at end of file
+}
@@ -17,7 +17,10 @@ public class SettingKey {
     private static final List<ColdSetting<?>> KEYS = new ArrayList<>();
 
     public static final ColdSetting<String> DATABASE_TYPE = create(
-            "database.type", STRING, "SQLITE"
+            "database.type", STRING, "SQLITE",
+            "Where votes are stored: SQLITE, MYSQL or LOCAL.",
+            "LOCAL is an embedded append-only log (votes.log) with an in-memory index, no SQL at all.",
+            "It is the fastest option for a single server; use MYSQL to share votes between servers."
     );
 
     public static final ColdSetting<Boolean> MYSQL_ENABLED = create(
@@ -48,21 +51,121 @@ public class SettingKey {
             "database.mysql.table-prefix", STRING, "vc_"
     );
 
+    public static final ColdSetting<Integer> BATCH_MAX_SIZE = create(
+            "database.batch.max-size", INTEGER, 200,
+            "Maximum number of votes written together in one transaction.",
+            "Vote bursts (vote parties, vote site queue flushes) are grouped into batches of this size."
+    );
+    public static final ColdSetting<Long> BATCH_MAX_DELAY_MS = create(
+            "database.batch.max-delay-ms", LONG, 50L,
+            "How long (in milliseconds) a vote may wait for more votes before its batch is written anyway."
+    );
+    public static final ColdSetting<Integer> BATCH_MAX_QUEUED = create(
+            "database.batch.max-queued", INTEGER, 10000,
+            "Maximum number of votes waiting in memory for the database.",
+            "Beyond this, new votes are only kept in the journal and written from there once the database catches up."
+    );
+    public static final ColdSetting<Boolean> JOURNAL_SYNC_WRITES = create(
+            "database.journal.sync-writes", BOOLEAN, false,
+            "Every vote is appended to 'votes.journal' before it is sent to the database,",
+            "so votes survive database outages and restarts.",
+            "If true, each vote is also forced to disk right away (survives power loss, but is slower)."
+    );
+
+    public static final ColdSetting<Integer> COMPACTION_KEEP_DAYS = create(
+            "database.compaction.keep-days", INTEGER, 90,
+            "Votes older than this many days are rolled up into per-player, per-site daily totals",
+            "and their raw rows deleted, keeping the votes table small. Totals stay available.",
+            "Set to 0 to keep every raw vote forever."
+    );
+    public static final ColdSetting<Integer> COMPACTION_INTERVAL_MINUTES = create(
+            "database.compaction.interval-minutes", INTEGER, 60,
+            "How often (in minutes) old votes are compacted."
+    );
+
+    public static final ColdSetting<Integer> CHECK_TIMEOUT_MS = create(
+            "database.check.timeout-ms", INTEGER, 2000,
+            "How long (in milliseconds) a vote check may wait for the database before 'failure-mode' applies."
+    );
+    public static final ColdSetting<String> CHECK_FAILURE_MODE = create(
+            "database.check.failure-mode", STRING, "CLOSED",
+            "What a vote check answers when the database is unavailable (timeout, errors, circuit open):",
+            "CLOSED = treat the player as not voted (commands stay blocked), OPEN = treat them as voted."
+    );
+    public static final ColdSetting<Integer> CHECK_MAX_QUEUED = create(
+            "database.check.max-queued", INTEGER, 1000,
+            "Maximum number of database reads waiting for a free connection.",
+            "Further checks fail right away instead of piling up during an outage."
+    );
+    public static final ColdSetting<Integer> BREAKER_FAILURE_THRESHOLD = create(
+            "database.breaker.failure-threshold", INTEGER, 5,
+            "After this many failed checks in a row, checks stop going to the database for a while.",
+            "One check is then let through to probe whether it recovered."
+    );
+    public static final ColdSetting<Integer> BREAKER_MAX_BACKOFF_SECONDS = create(
+            "database.breaker.max-backoff-seconds", INTEGER, 60,
+            "Longest pause (in seconds) between recovery probes; the pause doubles after each failed probe."
+    );
+    public static final ColdSetting<Integer> CACHE_MAX_ENTRIES = create(
+            "cache.max-entries", INTEGER, 100000,
+            "Maximum number of players kept in the in-memory last-vote index.",
+            "Recent voters are loaded at startup so most vote checks never touch the database.",
+            "When full, the oldest votes are dropped and checks for those players go to the database again."
+    );
+    public static final ColdSetting<Integer> CACHE_NAME_ENTRIES = create(
+            "cache.name-entries", INTEGER, 10000,
+            "Maximum number of player name -> UUID mappings kept in memory.",
+            "Votes for offline players are resolved from here, then from the server's user cache;",
+            "unknown names are looked up in the votes table, then the account service, off the main thread."
+    );
+    public static final ColdSetting<Integer> CACHE_STREAK_ENTRIES = create(
+            "cache.streak-entries", INTEGER, 10000,
+            "Maximum number of players whose vote streak is kept in memory.",
+            "A player's vote history is read once, the first time their streak is shown."
+    );
+    public static final ColdSetting<Integer> CACHE_QUIT_GRACE_SECONDS = create(
+            "cache.quit-grace-seconds", INTEGER, 300,
+            "Vote status is loaded while a player logs in, so it is ready before they spawn.",
+            "How long (in seconds) it is kept after they leave, so a quick reconnect does not reload it."
+    );
+    public static final ColdSetting<Integer> CACHE_NEGATIVE_TTL_SECONDS = create(
+            "cache.negative-ttl-seconds", INTEGER, 10,
+            "How long (in seconds) a 'not voted' answer from the database is reused for the same player.",
+            "Forgotten as soon as that player votes. Set to 0 to disable."
+    );
+    public static final ColdSetting<Integer> CACHE_SYNC_INTERVAL_SECONDS = create(
+            "cache.sync-interval-seconds", INTEGER, 5,
+            "How often (in seconds) votes stored by other servers are pulled into the index.",
+            "Only used with MySQL, when several servers share the same database."
+    );
+    public static final ColdSetting<Integer> LEADERBOARD_REFRESH_MINUTES = create(
+            "leaderboard.refresh-minutes", INTEGER, 5,
+            "Leaderboards are loaded once at startup and updated in memory with every vote stored here.",
+            "How often (in minutes) they are reloaded to include votes stored by other servers.",
+            "Only used with MySQL, when several servers share the same database."
+    );
+    public static final ColdSetting<String> LEADERBOARD_EMPTY_NAME = create(
+            "leaderboard.empty-name", STRING, "---",
+            "Shown by %votechecker_top_<n>_name% when fewer than <n> players voted in that period."
+    );
+
     public static final ColdSetting<Boolean> ENABLE_PLUGIN = create("enable-plugin", BOOLEAN, true,
             "Enable or disable the VoteChecker plugin entirely.",
             "If set to false, no commands will be blocked even if listed in 'blocked-commands'.");
 
     public static final ColdSetting<String> VOTE_RESET = create(
             "vote-reset", STRING, "06:59",
-            "Either a rolling duration (e.g. '24h', '12h', '1d')",
-            "or a daily reset time in 'HH:mm' (e.g. '07:00').",
-            "Examples: 24h  |  07:00"
+            "Either a rolling duration (e.g. '24h', '12h', '1d', '1d12h', '1w'),",
+            "one or more daily reset times in 'HH:mm' (e.g. '07:00' or '07:00, 19:00'),",
+            "or weekly reset times (e.g. 'MON 07:00' or 'MON 07:00, THU 07:00').",
+            "Daily and weekly reset times can be mixed in one list.",
+            "Examples: 24h  |  07:00  |  07:00, 19:00  |  MON 07:00"
     );
 
     public static final ColdSetting<String> VOTE_RESET_TIMEZONE = create(
             "vote-reset-timezone", STRING, "Europe/Bucharest",
             "IANA timezone for vote window calculation (e.g. 'Europe/Bucharest', 'UTC').",
-            "Used for both rolling duration anchors and daily reset cutoffs."
+            "Used for daily and weekly reset times."
     );
 
     public static final ColdSetting<String> BASE_COMMAND_REDIRECT = create("base-command-redirect", STRING, "", "Which command should we redirect to when using '/votechecker' with no subcommand specified?", "You can use a value here such as 'version' to show the output of '/votechecker version'", "If you have any aliases defined, do not use them here", "If left as blank, the default behavior of showing '/votechecker version' with bypassed permissions will be used");
@@ -76,12 +179,20 @@ public class SettingKey {
                     "spawn"
             ),
             "List of commands that are blocked until the player votes today.",
-            "Supports partial matches and subcommands.");
+            "An entry blocks the command with all its arguments, or only a subcommand path (e.g. 'crate open vote').",
+            "Aliases and namespaced labels (e.g. 'essentials:spawn') are blocked too.");
 
     public static final ColdSetting<Boolean> REQUIRE_ALL_SITES = create("require-all-sites", BOOLEAN, false,
-            "If true, the player must vote on all sites today to unlock commands.",
+            "If true, the player must vote on all sites listed in 'vote-sites' today to unlock commands.",
             "If false, one vote is enough.");
 
+    public static final ColdSetting<List<String>> VOTE_SITES = create("vote-sites", STRING_LIST,
+            Collections.emptyList(),
+            "Service names of your vote sites, exactly as Votifier reports them (enable 'debug' to see them), at most 32.",
+            "A site can have its own cooldown, written as 'name = rule' or 'name = rule @ timezone',",
+            "using the same rules as 'vote-reset' (e.g. 'MinecraftServers.org = 12h', 'TopG.org = 00:00 @ UTC').",
+            "Sites without a rule use 'vote-reset'. Used by 'require-all-sites' and the open sites placeholders.");
+
     private static <T> ColdSetting<T> create(String key, ColdSettingSerializer<T> serializer, T def, String... comments) {
         ColdSetting<T> setting = ColdSetting.backed(VoteChecker.getInstance(), key, serializer, def, comments);
         KEYS.add(setting);
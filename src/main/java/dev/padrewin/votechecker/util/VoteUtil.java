@@ -3,6 +3,9 @@ package dev.padrewin.votechecker.util;
 import dev.padrewin.votechecker.VoteChecker;
 import org.bukkit.entity.Player;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -17,4 +20,28 @@ public class VoteUtil {
         return VoteChecker.getInstance().getDatabase()
                 .hasVotedTodayAsync(uuid, playerName);
     }
-}
\ No newline at end of file
+
+    /**
+     * Vote status of many players at once, looked up together instead of one query per player.
+     */
+    public static CompletableFuture<Map<UUID, Boolean>> hasVotedToday(Collection<UUID> uuids) {
+        return VoteChecker.getInstance().getDatabase().hasVotedTodayAsync(uuids);
+    }
+
+    /**
+     * Vote status from memory only: TRUE or FALSE when known, null when the database has to be asked.
+     */
+    public static Boolean getCachedVoteStatus(Player player) {
+        return VoteChecker.getInstance().getDatabase().getCachedVoteStatus(player.getUniqueId());
+    }
+
+    public static CompletableFuture<List<String>> getOpenSites(Player player) {
+        return VoteChecker.getInstance().getDatabase()
+                .getOpenSitesAsync(player.getUniqueId(), player.getName());
+    }
+
+    public static CompletableFuture<List<String>> getOpenSites(UUID uuid, String playerName) {
+        return VoteChecker.getInstance().getDatabase()
+                .getOpenSitesAsync(uuid, playerName);
+    }
+}
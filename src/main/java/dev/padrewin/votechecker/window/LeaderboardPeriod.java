@@ -0,0 +1,75 @@
+package dev.padrewin.votechecker.window;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/**
+ * Periods the vote leaderboards are kept for. Each period starts at the reset time of
+ * {@code vote-reset}: every day, on the day of the first weekly reset, or on the first of the month.
+ */
+public enum LeaderboardPeriod {
+    DAILY,
+    WEEKLY,
+    MONTHLY,
+    ALLTIME;
+
+    /** Periods by placeholder name ({@code daily}, {@code weekly}, {@code monthly}, {@code alltime}), or null. */
+    public static LeaderboardPeriod fromNameOrNull(String name) {
+        if (name == null) return null;
+        String normalized = name.trim().toUpperCase(Locale.ROOT).replace("_", "").replace("-", "");
+        for (LeaderboardPeriod period : values()) {
+            if (period.name().equals(normalized)) return period;
+        }
+        return null;
+    }
+
+    /**
+     * Start (epoch millis) of the period containing {@code nowMillis}, 0 for {@link #ALLTIME}.
+     */
+    public long start(long nowMillis, ZoneId zone, DayOfWeek weekStart, LocalTime resetTime) {
+        if (this == ALLTIME) return 0L;
+        LocalDate date = align(Instant.ofEpochMilli(nowMillis).atZone(zone).toLocalDate(), weekStart);
+        long start = at(date, zone, resetTime);
+        return start <= nowMillis ? start : at(step(date, -1), zone, resetTime);
+    }
+
+    /**
+     * End (epoch millis, exclusive) of the period starting at {@code startMillis}, {@link Long#MAX_VALUE} for {@link #ALLTIME}.
+     */
+    public long end(long startMillis, ZoneId zone, DayOfWeek weekStart, LocalTime resetTime) {
+        if (this == ALLTIME) return Long.MAX_VALUE;
+        LocalDate date = align(Instant.ofEpochMilli(startMillis).atZone(zone).toLocalDate(), weekStart);
+        return at(step(date, 1), zone, resetTime);
+    }
+
+    private LocalDate align(LocalDate date, DayOfWeek weekStart) {
+        switch (this) {
+            case WEEKLY:
+                return date.with(TemporalAdjusters.previousOrSame(weekStart));
+            case MONTHLY:
+                return date.withDayOfMonth(1);
+            default:
+                return date;
+        }
+    }
+
+    private LocalDate step(LocalDate date, int amount) {
+        switch (this) {
+            case WEEKLY:
+                return date.plusWeeks(amount);
+            case MONTHLY:
+                return date.plusMonths(amount);
+            default:
+                return date.plusDays(amount);
+        }
+    }
+
+    private static long at(LocalDate date, ZoneId zone, LocalTime time) {
+        return date.atTime(time).atZone(zone).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,27 @@
+package dev.padrewin.votechecker.window;
+
+/**
+ * A vote counts for a fixed duration after it was made.
+ */
+public final class RollingWindow implements VoteWindow {
+
+    private final long durationMillis;
+
+    public RollingWindow(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @Override
+    public long windowStart(long nowMillis) {
+        return nowMillis - durationMillis;
+    }
+
+    @Override
+    public long nextExpiry(long lastVoteMillis) {
+        return lastVoteMillis + durationMillis;
+    }
+}
@@ -0,0 +1,102 @@
+package dev.padrewin.votechecker.window;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Votes reset at fixed local times within the week (every day, some days, or both).
+ * <p>
+ * The current period (last reset, next reset) is cached; checks inside it compare two longs.
+ * Only the first check after a reset goes through {@code java.time}, which also takes care of
+ * daylight saving changes in the configured zone.
+ */
+public final class ScheduledWindow implements VoteWindow {
+
+    static final int DAY_SECONDS = 86_400;
+
+    private final int[] cutoffs; // seconds since Monday 00:00 local time, sorted
+    private final ZoneId zone;
+    private volatile Period current = new Period(Long.MAX_VALUE, Long.MIN_VALUE);
+
+    ScheduledWindow(int[] cutoffs, ZoneId zone) {
+        this.cutoffs = cutoffs;
+        this.zone = zone;
+    }
+
+    @Override
+    public long windowStart(long nowMillis) {
+        Period period = current;
+        if (!period.contains(nowMillis)) {
+            period = periodAt(nowMillis);
+            current = period;
+        }
+        return period.start;
+    }
+
+    @Override
+    public long nextExpiry(long lastVoteMillis) {
+        Period period = current;
+        if (!period.contains(lastVoteMillis)) {
+            period = periodAt(lastVoteMillis);
+        }
+        return period.end;
+    }
+
+    /** Day of the first reset in the week, counted from Monday. */
+    public DayOfWeek getFirstResetDay() {
+        return DayOfWeek.of(cutoffs[0] / DAY_SECONDS + 1);
+    }
+
+    public LocalTime getFirstResetTime() {
+        return LocalTime.ofSecondOfDay(cutoffs[0] % DAY_SECONDS);
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    private Period periodAt(long millis) {
+        ZonedDateTime local = Instant.ofEpochMilli(millis).atZone(zone);
+        int dayIndex = local.getDayOfWeek().getValue() - 1;
+        LocalDateTime weekStart = local.toLocalDate().minusDays(dayIndex).atStartOfDay();
+        int secondOfWeek = dayIndex * DAY_SECONDS + local.toLocalTime().toSecondOfDay();
+
+        int i = -1;
+        while (i + 1 < cutoffs.length && cutoffs[i + 1] <= secondOfWeek) i++;
+
+        // Local times that fall into a DST gap move, so correct the guess on the real timeline.
+        long start = cutoffMillis(weekStart, i);
+        while (start > millis) start = cutoffMillis(weekStart, --i);
+        long end = cutoffMillis(weekStart, i + 1);
+        while (end <= millis) {
+            start = end;
+            end = cutoffMillis(weekStart, ++i + 1);
+        }
+        return new Period(start, end);
+    }
+
+    /** Cutoff {@code index} counted from {@code weekStart}; negative or too large indexes wrap into other weeks. */
+    private long cutoffMillis(LocalDateTime weekStart, int index) {
+        int weeks = Math.floorDiv(index, cutoffs.length);
+        int cutoff = cutoffs[Math.floorMod(index, cutoffs.length)];
+        return weekStart.plusWeeks(weeks).plusSeconds(cutoff).atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private static final class Period {
+        final long start;
+        final long end;
+
+        Period(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        boolean contains(long millis) {
+            return millis >= start && millis < end;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package dev.padrewin.votechecker.window;
+
+import java.time.DayOfWeek;
+import java.time.ZoneId;
+import java.util.Locale;
+import java.util.TreeSet;
+
+/**
+ * Compiled form of the {@code vote-reset} rule: decides from which moment a vote still counts.
+ * <p>
+ * Rules are parsed once (on enable and reload); evaluating a window afterwards is plain long
+ * arithmetic. Supported rules, case-insensitive:
+ * <ul>
+ *     <li>a rolling duration, e.g. {@code 24h}, {@code 90m}, {@code 1d12h}, {@code 1w}</li>
+ *     <li>daily cutoffs, e.g. {@code 07:00} or {@code 07:00, 19:00}</li>
+ *     <li>weekly cutoffs, e.g. {@code MON 07:00} or {@code MON 07:00, THU 07:00}</li>
+ * </ul>
+ * Daily and weekly cutoffs can be mixed in one list.
+ */
+public interface VoteWindow {
+
+    /**
+     * Oldest vote time (epoch millis) that still counts at {@code nowMillis}.
+     */
+    long windowStart(long nowMillis);
+
+    /**
+     * Moment (epoch millis) from which a vote made at {@code lastVoteMillis} no longer counts.
+     */
+    long nextExpiry(long lastVoteMillis);
+
+    /**
+     * @throws IllegalArgumentException if the rule is not valid
+     */
+    static VoteWindow compile(String rule, ZoneId zone) {
+        if (rule == null || rule.trim().isEmpty()) {
+            throw new IllegalArgumentException("empty rule");
+        }
+        String trimmed = rule.trim().toLowerCase(Locale.ROOT);
+        if (trimmed.indexOf(':') < 0) {
+            return new RollingWindow(parseDuration(trimmed));
+        }
+
+        TreeSet<Integer> cutoffs = new TreeSet<>();
+        for (String part : trimmed.split("[,;]")) {
+            String entry = part.trim();
+            if (entry.isEmpty()) continue;
+
+            int space = entry.indexOf(' ');
+            if (space < 0) {
+                int secondOfDay = parseTime(entry);
+                for (int day = 0; day < 7; day++) {
+                    cutoffs.add(day * ScheduledWindow.DAY_SECONDS + secondOfDay);
+                }
+            } else {
+                DayOfWeek day = parseDay(entry.substring(0, space));
+                int secondOfDay = parseTime(entry.substring(space + 1).trim());
+                cutoffs.add((day.getValue() - 1) * ScheduledWindow.DAY_SECONDS + secondOfDay);
+            }
+        }
+        if (cutoffs.isEmpty()) {
+            throw new IllegalArgumentException("no reset times in '" + rule + "'");
+        }
+
+        int[] sorted = new int[cutoffs.size()];
+        int i = 0;
+        for (int cutoff : cutoffs) sorted[i++] = cutoff;
+        return new ScheduledWindow(sorted, zone);
+    }
+
+    private static long parseDuration(String s) {
+        long total = 0L;
+        int i = 0;
+        while (i < s.length()) {
+            while (i < s.length() && s.charAt(i) == ' ') i++;
+            int digitsStart = i;
+            while (i < s.length() && Character.isDigit(s.charAt(i))) i++;
+            if (digitsStart == i) throw new IllegalArgumentException("expected a number in '" + s + "'");
+            long amount = Long.parseLong(s.substring(digitsStart, i));
+
+            while (i < s.length() && s.charAt(i) == ' ') i++;
+            int unitStart = i;
+            while (i < s.length() && Character.isLetter(s.charAt(i))) i++;
+            total += amount * unitMillis(s.substring(unitStart, i));
+        }
+        if (total <= 0L) throw new IllegalArgumentException("duration must be positive: '" + s + "'");
+        return total;
+    }
+
+    private static long unitMillis(String unit) {
+        switch (unit) {
+            case "ms": return 1L;
+            case "s": return 1_000L;
+            case "m": return 60_000L;
+            case "h": return 3_600_000L;
+            case "d": return 86_400_000L;
+            case "w": return 604_800_000L;
+            default: throw new IllegalArgumentException("unknown time unit '" + unit + "'");
+        }
+    }
+
+    private static int parseTime(String s) {
+        int colon = s.indexOf(':');
+        try {
+            int hours = Integer.parseInt(s.substring(0, colon).trim());
+            int minutes = Integer.parseInt(s.substring(colon + 1).trim());
+            if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59) {
+                throw new IllegalArgumentException("time out of range: '" + s + "'");
+            }
+            return hours * 3_600 + minutes * 60;
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("expected HH:mm, got '" + s + "'");
+        }
+    }
+
+    private static DayOfWeek parseDay(String s) {
+        for (DayOfWeek day : DayOfWeek.values()) {
+            String name = day.name().toLowerCase(Locale.ROOT);
+            if (name.equals(s) || name.substring(0, 3).equals(s)) return day;
+        }
+        throw new IllegalArgumentException("unknown day '" + s + "'");
+    }
+}